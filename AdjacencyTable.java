@@ -0,0 +1,167 @@
+import java.util.concurrent.ConcurrentHashMap;
+/**
+ * Precomputed adjacency of every cell on a board stored as flat arrays
+ * in compressed sparse row form. The neighbours of cell i are the entries
+ * from getOffsets()[i] up to (not including) getOffsets()[i + 1] of getNeighbours(),
+ * and getSides() holds the side of the placed card that faces each neighbour.
+ * The neighbour's side that is compared is always the opposite side.
+ * Tables never change after they are built so one table is shared by every
+ * board of the same height, width and topology. Use forShape to get it.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public final class AdjacencyTable
+{
+    /**
+     * Every table built so far, keyed by height, width and topology
+     */
+    private static final ConcurrentHashMap<String, AdjacencyTable> tables =
+        new ConcurrentHashMap<String, AdjacencyTable>();
+    /**
+     * The amount of tiles high the board is
+     */
+    private final int height;
+    /**
+     * The amount of tiles wide the board is
+     */
+    private final int width;
+    /**
+     * How the cells are connected
+     */
+    private final Topology topology;
+    /**
+     * Where the neighbours of each cell start in the neighbour array, with one
+     * extra entry at the end holding the total amount of edges
+     */
+    private final int[] offsets;
+    /**
+     * The destination cell of every edge, grouped by source cell
+     */
+    private final int[] neighbours;
+    /**
+     * The side (0 - 3 clockwise from the top) of the source cell's card facing the destination cell
+     */
+    private final byte[] sides;
+
+    /**
+     * Builds the table. Private since tables are shared through forShape.
+     */
+    private AdjacencyTable(int height, int width, Topology topology)
+    {
+        if(height < 1 || width < 1){
+            throw new IllegalArgumentException("A board needs at least one cell");
+        }
+        this.height = height;
+        this.width = width;
+        this.topology = topology;
+        int cells = height * width;
+        //Every cell has at most 6 neighbours, trimmed once the real count is known
+        int[] neighbourBuffer = new int[cells * 6];
+        byte[] sideBuffer = new byte[cells * 6];
+        this.offsets = new int[cells + 1];
+        int edges = 0;
+        for(int i = 0; i < cells; i++){
+            this.offsets[i] = edges;
+            int row = i / width;
+            int column = i % width;
+            if(topology == Topology.HEX){
+                //Odd rows are shifted right so their diagonals lean one column further right
+                int shift = row % 2;
+                edges = addEdge(neighbourBuffer, sideBuffer, edges, i, row - 1, column - 1 + shift, 0);
+                edges = addEdge(neighbourBuffer, sideBuffer, edges, i, row - 1, column + shift, 0);
+                edges = addEdge(neighbourBuffer, sideBuffer, edges, i, row, column + 1, 1);
+                edges = addEdge(neighbourBuffer, sideBuffer, edges, i, row + 1, column + shift, 2);
+                edges = addEdge(neighbourBuffer, sideBuffer, edges, i, row + 1, column - 1 + shift, 2);
+                edges = addEdge(neighbourBuffer, sideBuffer, edges, i, row, column - 1, 3);
+            } else {
+                edges = addEdge(neighbourBuffer, sideBuffer, edges, i, row - 1, column, 0);
+                edges = addEdge(neighbourBuffer, sideBuffer, edges, i, row, column + 1, 1);
+                edges = addEdge(neighbourBuffer, sideBuffer, edges, i, row + 1, column, 2);
+                edges = addEdge(neighbourBuffer, sideBuffer, edges, i, row, column - 1, 3);
+            }
+        }
+        this.offsets[cells] = edges;
+        this.neighbours = new int[edges];
+        this.sides = new byte[edges];
+        System.arraycopy(neighbourBuffer, 0, this.neighbours, 0, edges);
+        System.arraycopy(sideBuffer, 0, this.sides, 0, edges);
+    }
+    /**
+     * Gets the shared table for a board shape, building it the first time the shape is used
+     */
+    public static AdjacencyTable forShape(int height, int width, Topology topology){
+        String key = height + "x" + width + ":" + topology;
+        AdjacencyTable table = tables.get(key);
+        if(table == null){
+            AdjacencyTable built = new AdjacencyTable(height, width, topology);
+            table = tables.putIfAbsent(key, built);
+            if(table == null){
+                table = built;
+            }
+        }
+        return table;
+    }
+    /**
+     * Adds an edge from a cell to the cell at a row and column if it exists.
+     * Torus boards wrap the row and column around, other boards drop edges past a border.
+     * @return the new amount of edges
+     */
+    private int addEdge(int[] neighbourBuffer, byte[] sideBuffer, int edges, int cell, int row, int column, int side){
+        if(this.topology == Topology.TORUS){
+            row = (row + this.height) % this.height;
+            column = (column + this.width) % this.width;
+        } else if(row < 0 || row >= this.height || column < 0 || column >= this.width){
+            return edges;
+        }
+        int neighbour = row * this.width + column;
+        //A one cell wide torus would wrap a cell onto itself
+        if(neighbour == cell){
+            return edges;
+        }
+        neighbourBuffer[edges] = neighbour;
+        sideBuffer[edges] = (byte) side;
+        return edges + 1;
+    }
+    /**
+     * Getter for board height
+     */
+    public int getHeight(){
+        return this.height;
+    }
+    /**
+     * Getter for board width
+     */
+    public int getWidth(){
+        return this.width;
+    }
+    /**
+     * Getter for the total amount of cells
+     */
+    public int getCellCount(){
+        return this.height * this.width;
+    }
+    /**
+     * Getter for the topology the table was built for
+     */
+    public Topology getTopology(){
+        return this.topology;
+    }
+    /**
+     * Getter for the row offsets. Shared, must not be modified.
+     */
+    public int[] getOffsets(){
+        return this.offsets;
+    }
+    /**
+     * Getter for the neighbour cells of every edge. Shared, must not be modified.
+     */
+    public int[] getNeighbours(){
+        return this.neighbours;
+    }
+    /**
+     * Getter for the attacking side of every edge. Shared, must not be modified.
+     */
+    public byte[] getSides(){
+        return this.sides;
+    }
+}
@@ -0,0 +1,264 @@
+
+/**
+ * Negamax search with alpha-beta pruning over the moves of a GamePosition
+ * (every card left in hand times every empty cell).
+ * Moves are made and unmade on the position itself instead of copying it,
+ * and at every node the moves capturing the most cards are searched first
+ * since they are the most likely to cause a cutoff.
+ * A search can be limited by depth, by time, or both. Timed searches deepen
+ * one ply at a time and keep the result of the deepest search that finished,
+ * so the whole game tree is searched exactly when the time allows it.
+ * With a TranspositionTable, positions reached again through another move order
+ * are answered from the table, and the best move stored for a position is searched first.
+ * A search object keeps buffers between searches and is not thread safe,
+ * use one per thread. The table can be shared between threads.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class AlphaBetaSearch implements MoveSearch
+{
+    /**
+     * A score no position can reach, used as the initial search window
+     */
+    static final int INFINITY = 1000;
+    /**
+     * How many nodes are searched between checks of the clock
+     */
+    private static final int CLOCK_CHECK_INTERVAL = 4096;
+    /**
+     * The moves at each ply, reused between nodes so the search does not allocate
+     */
+    private final int[][] moveBuffers;
+    /**
+     * The ordering key (captures) of each move at each ply
+     */
+    private final int[][] orderBuffers;
+    /**
+     * The table of searched positions, null to search without one
+     */
+    private final TranspositionTable table;
+    /**
+     * The amount of positions visited by the current search
+     */
+    private long nodes;
+    /**
+     * The System.nanoTime() at which a timed search stops, Long.MAX_VALUE when untimed
+     */
+    private long deadline;
+    /**
+     * Set when the clock ran out, the running iteration is then thrown away
+     */
+    private boolean aborted;
+
+    /**
+     * Creates a search without a transposition table
+     */
+    public AlphaBetaSearch()
+    {
+        this(null);
+    }
+    /**
+     * Creates a search with room for boards of up to BitBoard.MAX_CELLS cells
+     * @param table the transposition table to use, may be shared with other searches. null for none.
+     */
+    public AlphaBetaSearch(TranspositionTable table)
+    {
+        this.table = table;
+        int maxMoves = GamePosition.MAX_HAND_SLOTS * BitBoard.MAX_CELLS;
+        this.moveBuffers = new int[BitBoard.MAX_CELLS + 1][maxMoves];
+        this.orderBuffers = new int[BitBoard.MAX_CELLS + 1][maxMoves];
+    }
+    /**
+     * Searches a position to the end of the game
+     */
+    public SearchResult search(GamePosition position){
+        return search(position, position.getRemainingPlies(), 0);
+    }
+    /**
+     * Searches a position to the end of the game or until the time runs out
+     * @param timeLimitMillis the time budget, 0 for no limit
+     */
+    public SearchResult search(GamePosition position, long timeLimitMillis){
+        return search(position, position.getRemainingPlies(), timeLimitMillis);
+    }
+    /**
+     * Searches a position with iterative deepening
+     * @param maxDepth the deepest search in plies
+     * @param timeLimitMillis the time budget, 0 for no limit. The first ply is always searched.
+     */
+    public SearchResult search(GamePosition position, int maxDepth, long timeLimitMillis){
+        long start = System.nanoTime();
+        this.nodes = 0;
+        this.aborted = false;
+        this.deadline = timeLimitMillis > 0 ? start + timeLimitMillis * 1000000L : Long.MAX_VALUE;
+        if(this.table != null){
+            this.table.newSearch();
+        }
+        maxDepth = Math.min(maxDepth, position.getRemainingPlies());
+        int bestMove = -1;
+        int bestScore = position.evaluate();
+        int completedDepth = 0;
+        for(int depth = 1; depth <= maxDepth; depth++){
+            long[] rootResult = searchRoot(position, depth, bestMove);
+            if(this.aborted && completedDepth > 0){
+                break;
+            }
+            bestMove = (int) rootResult[0];
+            bestScore = (int) rootResult[1];
+            completedDepth = depth;
+            if(this.aborted){
+                break;
+            }
+        }
+        return new SearchResult(bestMove, bestScore, completedDepth, this.nodes, System.nanoTime() - start);
+    }
+    /**
+     * Scores a position to a depth within a search window without a time limit.
+     * Used by ParallelSearch to search below the nodes it splits.
+     * @return the score from the point of view of the player to move
+     */
+    public int searchWindow(GamePosition position, int depth, int alpha, int beta){
+        this.nodes = 0;
+        this.aborted = false;
+        this.deadline = Long.MAX_VALUE;
+        return negamax(position, depth, alpha, beta, 0);
+    }
+    /**
+     * Searches every root move to a depth, trying the previous best move first
+     * @return the best move and its score
+     */
+    private long[] searchRoot(GamePosition position, int depth, int previousBest){
+        int[] moves = this.moveBuffers[0];
+        int count = orderMoves(position, 0, previousBest);
+        int alpha = -INFINITY;
+        int bestMove = count > 0 ? moves[0] : -1;
+        for(int i = 0; i < count; i++){
+            position.makeMove(moves[i]);
+            int score = -negamax(position, depth - 1, -INFINITY, -alpha, 1);
+            position.unmakeMove();
+            if(this.aborted && i > 0){
+                break;
+            }
+            if(score > alpha){
+                alpha = score;
+                bestMove = moves[i];
+            }
+        }
+        if(this.table != null && !this.aborted){
+            this.table.store(position.getHash(), alpha, depth, TranspositionTable.EXACT, bestMove);
+        }
+        return new long[] {bestMove, alpha};
+    }
+    /**
+     * Scores a position from the point of view of the player to move
+     */
+    private int negamax(GamePosition position, int depth, int alpha, int beta, int ply){
+        this.nodes++;
+        if((this.nodes % CLOCK_CHECK_INTERVAL) == 0 && System.nanoTime() > this.deadline){
+            this.aborted = true;
+        }
+        if(this.aborted || depth == 0 || position.isFinished()){
+            return position.evaluate();
+        }
+        long hash = 0L;
+        int tableMove = -1;
+        int originalAlpha = alpha;
+        if(this.table != null){
+            hash = position.getHash();
+            long data = this.table.probe(hash);
+            if(data != TranspositionTable.MISS){
+                tableMove = TranspositionTable.dataMove(data);
+                if(TranspositionTable.dataDepth(data) >= depth){
+                    int score = TranspositionTable.dataScore(data);
+                    int bound = TranspositionTable.dataBound(data);
+                    if(bound == TranspositionTable.EXACT){
+                        return score;
+                    } else if(bound == TranspositionTable.LOWER_BOUND){
+                        alpha = Math.max(alpha, score);
+                    } else {
+                        beta = Math.min(beta, score);
+                    }
+                    if(alpha >= beta){
+                        return score;
+                    }
+                }
+            }
+        }
+        int[] moves = this.moveBuffers[ply];
+        int count = orderMoves(position, ply, tableMove);
+        int best = -INFINITY;
+        int bestMove = -1;
+        for(int i = 0; i < count; i++){
+            position.makeMove(moves[i]);
+            int score = -negamax(position, depth - 1, -beta, -alpha, ply + 1);
+            position.unmakeMove();
+            if(score > best){
+                best = score;
+                bestMove = moves[i];
+                if(score > alpha){
+                    alpha = score;
+                    if(alpha >= beta){
+                        break;
+                    }
+                }
+            }
+        }
+        if(this.table != null && !this.aborted){
+            int bound = best <= originalAlpha ? TranspositionTable.UPPER_BOUND
+                : best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+            this.table.store(hash, best, depth, bound, bestMove);
+        }
+        return best;
+    }
+    /**
+     * Generates the moves of a position into the buffer of a ply,
+     * sorted so the moves capturing the most cards come first
+     * @param firstMove a move to search before all others (the previous or stored best move), -1 for none
+     * @return the amount of moves
+     */
+    private int orderMoves(GamePosition position, int ply, int firstMove){
+        return orderMoves(position, this.moveBuffers[ply], this.orderBuffers[ply], firstMove);
+    }
+    /**
+     * Generates the moves of a position into an array, sorted so the moves
+     * capturing the most cards come first. Shared with ParallelSearch.
+     * @param keys an array the size of moves used for the sort keys
+     * @param firstMove a move to put before all others, -1 for none
+     * @return the amount of moves
+     */
+    static int orderMoves(GamePosition position, int[] moves, int[] keys, int firstMove){
+        int count = position.generateMoves(moves);
+        for(int i = 0; i < count; i++){
+            keys[i] = position.captureCount(moves[i]);
+        }
+        //Insertion sort, move lists are short and mostly have few distinct keys
+        for(int i = 1; i < count; i++){
+            int move = moves[i];
+            int key = keys[i];
+            int j = i - 1;
+            while(j >= 0 && keys[j] < key){
+                moves[j + 1] = moves[j];
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            keys[j + 1] = key;
+        }
+        if(firstMove >= 0){
+            for(int i = 0; i < count; i++){
+                if(moves[i] == firstMove){
+                    System.arraycopy(moves, 0, moves, 1, i);
+                    moves[0] = firstMove;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+    /**
+     * Getter for the amount of positions visited by the last search
+     */
+    public long getNodes(){
+        return this.nodes;
+    }
+}
@@ -0,0 +1,324 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+/**
+ * Serves one client of the BinaryGameServer speaking the MoveProtocol. Frames are decoded straight out of
+ * a pooled direct read buffer and answers are encoded straight into a pooled direct write buffer,
+ * so reading a move and sending its result allocates nothing.
+ * Reads happen on the server's selector thread. Writes can also come from the thread of an opponent
+ * connected to another server sharing the registry, so the write buffer is only touched while holding this
+ * connection's lock, which is always taken after a session's lock and never before it.
+ * A client that stops reading until its write buffer is full is disconnected.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class BinaryConnection implements SessionSeat
+{
+    /**
+     * The server the client connected to
+     */
+    private final BinaryGameServer server;
+    /**
+     * The sessions of the server
+     */
+    private final SessionRegistry registry;
+    /**
+     * The client's channel
+     */
+    private final SocketChannel channel;
+    /**
+     * The channel's registration with the server's selector
+     */
+    private final SelectionKey key;
+    /**
+     * Bytes read from the client that haven't been handled yet, kept ready for reading into
+     */
+    private final ByteBuffer in;
+    /**
+     * Bytes waiting to be sent to the client, kept ready for writing into
+     */
+    private final ByteBuffer out;
+    /**
+     * Receives STATE_REPLY frames before they are copied into the write buffer,
+     * so the session's lock isn't taken while holding this connection's
+     */
+    private final ByteBuffer stateFrame;
+    /**
+     * The session the client is seated at, null before NEW or JOIN
+     */
+    private GameSession session;
+    /**
+     * The owner id of the client's seat
+     */
+    private int seat;
+    /**
+     * Set once the connection closed or its write buffer overflowed
+     */
+    private boolean closed;
+    /**
+     * Set once the buffers went back to the pool
+     */
+    private boolean released;
+
+    /**
+     * Creates the connection of a channel accepted by a server and registered with its selector
+     */
+    public BinaryConnection(BinaryGameServer server, SocketChannel channel, SelectionKey key)
+    {
+        this.server = server;
+        this.registry = server.getRegistry();
+        this.channel = channel;
+        this.key = key;
+        this.in = server.getBufferPool().acquire();
+        this.out = server.getBufferPool().acquire();
+        this.stateFrame = ByteBuffer.allocate(MoveProtocol.MAX_FRAME);
+        this.session = null;
+        this.seat = -1;
+        this.closed = false;
+        this.released = false;
+    }
+    /**
+     * Reads what the client sent and handles every complete frame
+     * @return false when the connection should be closed
+     */
+    public boolean readFrames() throws IOException{
+        if(this.channel.read(this.in) < 0){
+            return false;
+        }
+        this.in.flip();
+        boolean open = true;
+        while(open && this.in.remaining() > 0){
+            int frameStart = this.in.position();
+            int length = this.in.get(frameStart) & 0xFF;
+            if(length == 0){
+                open = false;
+                break;
+            }
+            if(this.in.remaining() < length + 1){
+                break;
+            }
+            int type = this.in.get(frameStart + 1) & 0xFF;
+            this.in.position(frameStart + 2);
+            open = handleFrame(type, length - 1);
+            this.in.position(frameStart + 1 + length);
+        }
+        this.in.compact();
+        return open && !isClosed();
+    }
+    /**
+     * Handles one client frame whose payload starts at the read buffer's position
+     * @return false when the client quit
+     */
+    private boolean handleFrame(int type, int payloadLength){
+        switch(type){
+            case MoveProtocol.NEW:
+                if(payloadLength != 8){
+                    return sendError(MoveProtocol.ERROR_BAD_FRAME);
+                }
+                sit(this.registry.createSession(this.in.getLong()));
+                return true;
+            case MoveProtocol.JOIN:
+                if(payloadLength != 4){
+                    return sendError(MoveProtocol.ERROR_BAD_FRAME);
+                }
+                GameSession joined = this.registry.getSession(this.in.getInt());
+                if(joined == null){
+                    return sendError(MoveProtocol.ERROR_NO_SUCH_SESSION);
+                }
+                sit(joined);
+                return true;
+            case MoveProtocol.MOVE:
+                if(payloadLength != 2){
+                    return sendError(MoveProtocol.ERROR_BAD_FRAME);
+                }
+                if(this.session == null){
+                    return sendError(MoveProtocol.ERROR_NOT_IN_SESSION);
+                }
+                int handIndex = this.in.get() & 0xFF;
+                int boardIndex = this.in.get() & 0xFF;
+                int result = this.session.play(this.seat, handIndex, boardIndex);
+                return result == GameSession.MOVE_PLAYED || sendError(result);
+            case MoveProtocol.STATE:
+                if(this.session == null){
+                    return sendError(MoveProtocol.ERROR_NOT_IN_SESSION);
+                }
+                this.stateFrame.clear();
+                this.session.writeState(this.stateFrame);
+                this.stateFrame.flip();
+                sendState();
+                return true;
+            case MoveProtocol.QUIT:
+                return false;
+            default:
+                return sendError(MoveProtocol.ERROR_BAD_FRAME);
+        }
+    }
+    /**
+     * Leaves the current session and takes a seat at another
+     */
+    private void sit(GameSession newSession){
+        leaveSession();
+        int newSeat = newSession.join(this);
+        if(newSeat < 0){
+            sendError(MoveProtocol.ERROR_SESSION_FULL);
+            return;
+        }
+        this.session = newSession;
+        this.seat = newSeat;
+    }
+    /**
+     * Frees the client's seat, forgetting the session once nobody is left
+     */
+    private void leaveSession(){
+        if(this.session != null){
+            if(this.session.leave(this.seat)){
+                this.registry.removeSession(this.session);
+            }
+            this.session = null;
+            this.seat = -1;
+        }
+    }
+    /**
+     * Sends an ERROR frame
+     * @return true so frame handlers can return it
+     */
+    private synchronized boolean sendError(int code){
+        if(reserve(3)){
+            MoveProtocol.putByteFrame(this.out, MoveProtocol.ERROR, code);
+            flush();
+        }
+        return true;
+    }
+    /**
+     * Sends the STATE_REPLY frame waiting in stateFrame
+     */
+    private synchronized void sendState(){
+        if(reserve(this.stateFrame.remaining())){
+            this.out.put(this.stateFrame);
+            flush();
+        }
+    }
+    /**
+     * Sends a SESSION frame
+     */
+    public synchronized void seated(int sessionId, int seat, long seed){
+        if(reserve(15)){
+            MoveProtocol.putSession(this.out, sessionId, seat, seed);
+            flush();
+        }
+    }
+    /**
+     * Sends a READY frame
+     */
+    public synchronized void ready(int turn){
+        if(reserve(3)){
+            MoveProtocol.putByteFrame(this.out, MoveProtocol.READY, turn);
+            flush();
+        }
+    }
+    /**
+     * Sends a PLAYED frame
+     */
+    public synchronized void played(int seat, int handIndex, int boardIndex, int[] flips, int flipCount){
+        if(reserve(6 + flipCount)){
+            MoveProtocol.putPlayed(this.out, seat, handIndex, boardIndex, flips, flipCount);
+            flush();
+        }
+    }
+    /**
+     * Sends a GAMEOVER frame
+     */
+    public synchronized void gameOver(int winner){
+        if(reserve(3)){
+            MoveProtocol.putByteFrame(this.out, MoveProtocol.GAMEOVER, winner);
+            flush();
+        }
+    }
+    /**
+     * Sends a LEFT frame
+     */
+    public synchronized void left(int seat){
+        if(reserve(3)){
+            MoveProtocol.putByteFrame(this.out, MoveProtocol.LEFT, seat);
+            flush();
+        }
+    }
+    /**
+     * Makes sure a frame fits in the write buffer, sending what's waiting if it doesn't.
+     * Fails the connection if it still doesn't fit.
+     * @return true if the frame can be written
+     */
+    private boolean reserve(int bytes){
+        if(this.closed){
+            return false;
+        }
+        if(this.out.remaining() < bytes){
+            flush();
+        }
+        if(this.out.remaining() < bytes){
+            fail();
+            return false;
+        }
+        return true;
+    }
+    /**
+     * Stops writing to the client and has the selector thread close the connection,
+     * since the session and the buffers can only be let go of there
+     */
+    private void fail(){
+        if(!this.closed){
+            this.closed = true;
+            this.server.closeLater(this);
+        }
+    }
+    /**
+     * Writes as much of the waiting bytes as the channel takes and asks the selector
+     * to say when it can take more if some are left
+     */
+    public synchronized void flush(){
+        if(this.closed){
+            return;
+        }
+        try {
+            this.out.flip();
+            this.channel.write(this.out);
+            this.out.compact();
+            int ops = this.out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+            if(this.key.interestOps() != ops){
+                this.key.interestOps(ops);
+                this.key.selector().wakeup();
+            }
+        } catch(IOException e){
+            fail();
+        }
+    }
+    /**
+     * Checks if the connection has been closed or has to be
+     */
+    public synchronized boolean isClosed(){
+        return this.closed;
+    }
+    /**
+     * Leaves the session, closes the channel and gives the buffers back to the pool.
+     * Called on the selector thread, closing twice does nothing.
+     */
+    public void close(){
+        if(this.released){
+            return;
+        }
+        leaveSession();
+        synchronized(this){
+            this.closed = true;
+            this.released = true;
+            this.key.cancel();
+            try {
+                this.channel.close();
+            } catch(IOException e){
+                //Already closed
+            }
+            this.server.getBufferPool().release(this.in);
+            this.server.getBufferPool().release(this.out);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+/**
+ * Hosts matches like the GameServer but speaks the MoveProtocol, serving every client from one selector thread
+ * instead of a thread per connection. Each client is a BinaryConnection reading and writing pooled direct buffers,
+ * so a move is decoded, played and answered without copying its bytes onto the heap or allocating.
+ * Sessions live in a SessionRegistry that can be shared with a GameServer.
+ * Run main with a port to serve, or with "load" to measure a server full of matches with the LoadTestClient.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class BinaryGameServer
+{
+    /**
+     * The port served when none is given
+     */
+    public static final int DEFAULT_PORT = 7778;
+    /**
+     * The capacity of each connection's read and write buffers in bytes
+     */
+    private static final int CONNECTION_BUFFER_BYTES = 4096;
+    /**
+     * The most buffers kept for reuse once their connections close
+     */
+    private static final int MAX_POOLED_BUFFERS = 1024;
+    /**
+     * The sessions being played
+     */
+    private final SessionRegistry registry;
+    /**
+     * The buffers of the connections, only used on the selector thread
+     */
+    private final BufferPool bufferPool;
+    /**
+     * Waits for connections to accept and clients to read from or write to
+     */
+    private final Selector selector;
+    /**
+     * The channel connections are accepted on
+     */
+    private final ServerSocketChannel serverChannel;
+    /**
+     * Connections that failed on another thread and wait for the selector thread to close them
+     */
+    private final ConcurrentLinkedQueue<BinaryConnection> closing;
+    /**
+     * Cleared to stop the selector thread
+     */
+    private volatile boolean running;
+
+    /**
+     * Opens a server on a localhost port. Port 0 picks a free port.
+     */
+    public BinaryGameServer(int port) throws IOException
+    {
+        this(port, new SessionRegistry());
+    }
+    /**
+     * Opens a server on a localhost port hosting the sessions of a registry
+     */
+    public BinaryGameServer(int port, SessionRegistry registry) throws IOException
+    {
+        this.registry = registry;
+        this.bufferPool = new BufferPool(CONNECTION_BUFFER_BYTES, MAX_POOLED_BUFFERS);
+        this.closing = new ConcurrentLinkedQueue<BinaryConnection>();
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+        this.running = false;
+    }
+    /**
+     * Getter for the port the server accepts connections on
+     */
+    public int getPort(){
+        return this.serverChannel.socket().getLocalPort();
+    }
+    /**
+     * Getter for the sessions being played
+     */
+    public SessionRegistry getRegistry(){
+        return this.registry;
+    }
+    /**
+     * Getter for the pool of connection buffers, only used on the selector thread
+     */
+    public BufferPool getBufferPool(){
+        return this.bufferPool;
+    }
+    /**
+     * Starts serving on a background thread
+     */
+    public void start(){
+        this.running = true;
+        Thread loop = new Thread(() -> serve(), "binary-game-server");
+        loop.setDaemon(true);
+        loop.start();
+    }
+    /**
+     * Has the selector thread close a connection that failed on another thread
+     */
+    public void closeLater(BinaryConnection connection){
+        this.closing.add(connection);
+        this.selector.wakeup();
+    }
+    /**
+     * Accepts connections and handles ready clients until the server is closed
+     */
+    private void serve(){
+        while(this.running){
+            try {
+                this.selector.select();
+            } catch(IOException e){
+                break;
+            }
+            BinaryConnection failed;
+            while((failed = this.closing.poll()) != null){
+                failed.close();
+            }
+            Iterator<SelectionKey> ready = this.selector.selectedKeys().iterator();
+            while(ready.hasNext()){
+                SelectionKey key = ready.next();
+                ready.remove();
+                if(!key.isValid()){
+                    continue;
+                }
+                if(key.isAcceptable()){
+                    accept();
+                    continue;
+                }
+                BinaryConnection connection = (BinaryConnection) key.attachment();
+                try {
+                    if(key.isReadable() && !connection.readFrames()){
+                        connection.close();
+                        continue;
+                    }
+                    if(key.isValid() && key.isWritable()){
+                        connection.flush();
+                    }
+                } catch(IOException e){
+                    connection.close();
+                }
+            }
+        }
+        for(SelectionKey key: this.selector.keys()){
+            if(key.attachment() instanceof BinaryConnection){
+                ((BinaryConnection) key.attachment()).close();
+            }
+        }
+        try {
+            this.selector.close();
+        } catch(IOException e){
+            //Nothing left to serve
+        }
+    }
+    /**
+     * Accepts every waiting connection and registers it for reading
+     */
+    private void accept(){
+        try {
+            SocketChannel channel;
+            while((channel = this.serverChannel.accept()) != null){
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                SelectionKey key = channel.register(this.selector, SelectionKey.OP_READ);
+                key.attach(new BinaryConnection(this, channel, key));
+            }
+        } catch(IOException e){
+            //One accept failed, the rest are retried on the next select
+        }
+    }
+    /**
+     * Stops accepting connections and closes every open one
+     */
+    public void close() throws IOException{
+        this.running = false;
+        this.serverChannel.close();
+        this.selector.wakeup();
+    }
+    /**
+     * Serves on a port until killed, recording finished matches when a replay log is given:
+     * java BinaryGameServer [port] [replay log]
+     * or runs a load test against a local server: java BinaryGameServer load [matches] [seed]
+     */
+    public static void main(String[] args) throws Exception{
+        if(args.length > 0 && args[0].equals("load")){
+            int matches = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+            long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+            BinaryGameServer server = new BinaryGameServer(0);
+            server.start();
+            System.out.println(LoadTestClient.run(server.getPort(), matches, seed, true));
+            server.close();
+            return;
+        }
+        SessionRegistry registry = SessionRegistry.recordingTo(args.length > 1 ? args[1] : null);
+        BinaryGameServer server = new BinaryGameServer(args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT, registry);
+        server.start();
+        System.out.println("Serving Triple Triad's binary protocol on localhost:" + server.getPort());
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,316 @@
+import java.util.Arrays;
+/**
+ * A compact game-state engine for the board.
+ * Where the Board class keeps Node objects and an adjacency list of WeightedEdges,
+ * the BitBoard packs the same information into a few primitive words:
+ * one bit per cell for occupancy, one bit per cell for the owner and
+ * an int per cell holding the ranks of the card placed there (one nibble per side).
+ * The rules are the same as Board.playCardAt, a placed card captures every adjacent
+ * card whose facing side has a lower rank. It is meant for bulk simulation and search,
+ * while the Board keeps driving the Swing view. The two can be converted with
+ * fromBoard and toBoard.
+ * Boards can hold up to 64 cells since a cell maps to one bit of a long.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class BitBoard
+{
+    /**
+     * The slot stored for an empty cell
+     */
+    public static final int NO_SLOT = -1;
+    /**
+     * The most cells a board can have, one per bit of a long
+     */
+    public static final int MAX_CELLS = 64;
+    /**
+     * The amount of tiles high the board is
+     */
+    private final int height;
+    /**
+     * The amount of tiles wide the board is
+     */
+    private final int width;
+    /**
+     * The total amount of cells, height * width
+     */
+    private final int cellCount;
+    /**
+     * Bit i is set if cell i holds a card
+     */
+    private long occupied;
+    /**
+     * Bit i is set if the card in cell i belongs to Player 2, so the bit is the cell's owner id.
+     * Only meaningful for occupied cells.
+     */
+    private long owners;
+    /**
+     * The packed ranks of the card in each cell. Top in the lowest nibble then right, bottom and left.
+     */
+    private final int[] cellRanks;
+    /**
+     * The card slot of the card in each cell, used to map a cell back to a Card object.
+     * NO_SLOT when the cell is empty.
+     */
+    private final byte[] cellSlots;
+    /**
+     * The Zobrist hash of the cards and owners on the board, updated with every play and capture
+     */
+    private long hash;
+    /**
+     * The shared adjacency of the board's shape
+     */
+    private final AdjacencyTable adjacency;
+
+    /**
+     * Creates an empty square board of the given dimensions
+     */
+    public BitBoard(int height, int width)
+    {
+        this(height, width, Topology.GRID);
+    }
+    /**
+     * Creates an empty board of the given dimensions and topology
+     */
+    public BitBoard(int height, int width, Topology topology)
+    {
+        if(height * width > MAX_CELLS || height < 1 || width < 1){
+            throw new IllegalArgumentException("A BitBoard holds between 1 and " + MAX_CELLS + " cells");
+        }
+        this.height = height;
+        this.width = width;
+        this.cellCount = height * width;
+        this.occupied = 0L;
+        this.owners = 0L;
+        this.hash = 0L;
+        this.cellRanks = new int[this.cellCount];
+        this.cellSlots = new byte[this.cellCount];
+        Arrays.fill(this.cellSlots, (byte) NO_SLOT);
+        this.adjacency = AdjacencyTable.forShape(height, width, topology);
+    }
+    /**
+     * Copy constructor. The adjacency table is shared since it never changes.
+     */
+    public BitBoard(BitBoard that)
+    {
+        this.height = that.height;
+        this.width = that.width;
+        this.cellCount = that.cellCount;
+        this.occupied = that.occupied;
+        this.owners = that.owners;
+        this.hash = that.hash;
+        this.cellRanks = that.cellRanks.clone();
+        this.cellSlots = that.cellSlots.clone();
+        this.adjacency = that.adjacency;
+    }
+    /**
+     * Returns a copy of this board
+     */
+    public BitBoard copy(){
+        return new BitBoard(this);
+    }
+    /**
+     * Getter for board height
+     */
+    public int getHeight(){
+        return this.height;
+    }
+    /**
+     * Getter for board width
+     */
+    public int getWidth(){
+        return this.width;
+    }
+    /**
+     * Getter for how the cells are connected
+     */
+    public Topology getTopology(){
+        return this.adjacency.getTopology();
+    }
+    /**
+     * Getter for the total amount of cells on the board
+     */
+    public int getCellCount(){
+        return this.cellCount;
+    }
+    /**
+     * Getter for the occupancy word, bit i is set if cell i holds a card
+     */
+    public long getOccupied(){
+        return this.occupied;
+    }
+    /**
+     * Getter for the owner word, bit i is set if cell i belongs to Player 2
+     */
+    public long getOwners(){
+        return this.owners;
+    }
+    /**
+     * Getter for the Zobrist hash of the cards and owners on the board
+     */
+    public long getHash(){
+        return this.hash;
+    }
+    /**
+     * Checks if a card can be played at a cell, mirroring Board.attemptPlayCardAt
+     */
+    public boolean isEmpty(int cell){
+        return (this.occupied & (1L << cell)) == 0;
+    }
+    /**
+     * Gets the packed ranks of the card at a cell, 0 if the cell is empty
+     */
+    public int getCellRanks(int cell){
+        return this.cellRanks[cell];
+    }
+    /**
+     * Gets the card slot of the card at a cell, NO_SLOT if the cell is empty
+     */
+    public int getCellSlot(int cell){
+        return this.cellSlots[cell];
+    }
+    /**
+     * Gets the owner id of the card at a cell. Should only be called on occupied cells.
+     */
+    public int getCellOwner(int cell){
+        return (int) ((this.owners >>> cell) & 1L);
+    }
+    /**
+     * Calculates which cells a card would capture if it was played at a cell
+     * without changing the board.
+     * @param ranks the packed ranks of the card being played
+     * @param owner the owner id of the player playing the card
+     * @return a mask of the opponent cells that would change owner
+     */
+    public long captureMask(int cell, int ranks, int owner){
+        long opponentCells = owner == Owner.PLAYER_ONE ? this.occupied & this.owners : this.occupied & ~this.owners;
+        long flips = 0L;
+        int[] neighbours = this.adjacency.getNeighbours();
+        byte[] sides = this.adjacency.getSides();
+        int end = this.adjacency.getOffsets()[cell + 1];
+        for(int edge = this.adjacency.getOffsets()[cell]; edge < end; edge++){
+            int target = neighbours[edge];
+            if((opponentCells & (1L << target)) != 0){
+                if(Card.captures(ranks, this.cellRanks[target], sides[edge])){
+                    flips |= 1L << target;
+                }
+            }
+        }
+        return flips;
+    }
+    /**
+     * Plays a card on an empty cell then captures every adjacent card it beats,
+     * the same as Board.playCardAt.
+     * @param ranks the packed ranks of the card being played
+     * @param owner the owner id of the player playing the card
+     * @param slot the card slot used to map the cell back to a Card
+     * @return a mask of the cells that were captured
+     */
+    public long playAt(int cell, int ranks, int owner, int slot){
+        long flips = captureMask(cell, ranks, owner);
+        long cellBit = 1L << cell;
+        this.occupied |= cellBit;
+        if(owner == Owner.PLAYER_TWO){
+            this.owners |= cellBit;
+        } else {
+            this.owners &= ~cellBit;
+        }
+        this.owners ^= flips;
+        this.cellRanks[cell] = ranks;
+        this.cellSlots[cell] = (byte) slot;
+        this.hash ^= Zobrist.cardKey(cell, ranks) ^ Zobrist.ownerKeys(flips);
+        if(owner == Owner.PLAYER_TWO){
+            this.hash ^= Zobrist.ownerKey(cell);
+        }
+        return flips;
+    }
+    /**
+     * Takes back a card played with playAt, restoring the owners of the cells it captured.
+     * Used by searches to unmake moves instead of copying the board.
+     * @param flips the capture mask returned by playAt when the card was played
+     */
+    public void undoAt(int cell, long flips){
+        long cellBit = 1L << cell;
+        this.hash ^= Zobrist.cardKey(cell, this.cellRanks[cell]) ^ Zobrist.ownerKeys(flips);
+        if(getCellOwner(cell) == Owner.PLAYER_TWO){
+            this.hash ^= Zobrist.ownerKey(cell);
+        }
+        this.owners ^= flips;
+        this.owners &= ~cellBit;
+        this.occupied &= ~cellBit;
+        this.cellRanks[cell] = 0;
+        this.cellSlots[cell] = (byte) NO_SLOT;
+    }
+    /**
+     * Counts the cards on the board owned by a player, the equivalent of Board.getPlayedCardTotal
+     */
+    public int countOwned(int owner){
+        long owned = owner == Owner.PLAYER_ONE ? this.occupied & ~this.owners : this.occupied & this.owners;
+        return Long.bitCount(owned);
+    }
+    /**
+     * Counts every card on the board
+     */
+    public int countPlayed(){
+        return Long.bitCount(this.occupied);
+    }
+    /**
+     * The board is full when every cell holds a card, which ends the game
+     */
+    public boolean isFull(){
+        return countPlayed() == this.cellCount;
+    }
+    /**
+     * Creates a BitBoard holding the same cards and owners as a Board.
+     * The slot of every card is the index of the cell it sits in, so
+     * the cards of the board's nodes form the slot table for toBoard.
+     */
+    public static BitBoard fromBoard(Board board){
+        BitBoard bitBoard = new BitBoard(board.getHeight(), board.getWidth(), board.getTopology());
+        for(Node node: board.getPlayedCards()){
+            if(node.getHasCard()){
+                Card card = node.getCard();
+                int cell = node.getIndex();
+                long cellBit = 1L << cell;
+                bitBoard.occupied |= cellBit;
+                if(card.getOwner() == Owner.PLAYER_TWO){
+                    bitBoard.owners |= cellBit;
+                    bitBoard.hash ^= Zobrist.ownerKey(cell);
+                }
+                bitBoard.cellRanks[cell] = card.getPackedRanks();
+                bitBoard.hash ^= Zobrist.cardKey(cell, card.getPackedRanks());
+                bitBoard.cellSlots[cell] = (byte) cell;
+            }
+        }
+        return bitBoard;
+    }
+    /**
+     * Creates a Board holding the cards of this BitBoard so it can be drawn by the view.
+     * Cards are looked up by their slot and copied with the owner of their cell, so the slot cards,
+     * which may sit on another Board, keep their owners.
+     * @param slotCards the Card for every slot used when the cards were played
+     */
+    public Board toBoard(Card[] slotCards){
+        Board board = new Board(this.height, this.width, getTopology());
+        for(int cell = 0; cell < this.cellCount; cell++){
+            if(!isEmpty(cell)){
+                Card card = slotCards[getCellSlot(cell)];
+                board.placeCard(cell, new Card(card.getDefinition(), getCellOwner(cell)));
+            }
+        }
+        return board;
+    }
+    /**
+     * Converts the board to a string of rows where each cell is its owner id or a dot if empty
+     */
+    public String toString(){
+        StringBuilder output = new StringBuilder();
+        for(int cell = 0; cell < this.cellCount; cell++){
+            output.append(isEmpty(cell) ? "." : "" + getCellOwner(cell));
+            if((cell + 1) % this.width == 0){
+                output.append("\n");
+            }
+        }
+        return output.toString();
+    }
+}
@@ -3,8 +3,8 @@ import java.util.ArrayList;
  * This is the Data structure that keeps track of cards played
  * On the board as well as the direction squares on the board are adjacent
  * Handles Comparisons of cards on the board after plays and modifies the
- * Nodes and WeightedEdges that comprise it. The weight of the edge indicates
- * whether cards are adjacent on their Top, Right, Bottom or Left sides.
+ * Nodes that comprise it. Which nodes are adjacent, and on which side, comes from
+ * an AdjacencyTable shared by every board of the same shape.
  * Nodes are squares on the board that can hold a card, tell what nodes they're adjacent to
  * and whether or not they hold a card. When all nodes hold a card the game is complete.
  * @author Keagen Thomson
@@ -28,14 +28,58 @@ public class Board
      * to likewise update the adjacency list
      */
     private Node[] playedCards;
-    //Adjacency list representation of a graph used for the board
     /**
-     * An Adjacency list of Weighted edges that reference the played card
-     * nodes. Each Index abstractly represents an index in the playedCards
-     * array, and which nodes are "adjacent" to that same node.
+     * The shared, precomputed adjacency of every node. Boards of the same shape use the same table
+     * so the edges are only built once no matter how many boards exist.
      * Used when calculating whether a card captures what it is placed next to.
      */
-    private ArrayList<WeightedEdge>[] board;
+    private final AdjacencyTable adjacency;
+    /**
+     * The Zobrist hash of the cards and owners on the board. Updated with every play
+     * and every capture that changes a card's owner, it matches BitBoard.getHash for the same board.
+     */
+    private long hash;
+    /**
+     * The amount of cards each player owns on the board, indexed by owner id.
+     * Kept up to date as cards are played and captured so scores don't need a scan.
+     */
+    private final int[] ownerCounts;
+    /**
+     * The amount of nodes holding a card. The board is full when this reaches the total amount of nodes.
+     */
+    private int filledCount;
+    /**
+     * The index played on by each journaled play, in order
+     */
+    private final int[] journalIndexes;
+    /**
+     * The card played by each journaled play, handed back when the play is undone
+     */
+    private final Card[] journalCards;
+    /**
+     * Where each journaled play's flips end in flipIndexes. A play's flips start where the previous play's end.
+     */
+    private final int[] journalFlipEnds;
+    /**
+     * The index of every card whose owner a journaled play changed
+     */
+    private final int[] flipIndexes;
+    /**
+     * The owner id each flipped card had before it was captured
+     */
+    private final byte[] flipOwners;
+    /**
+     * The amount of journaled plays currently on the board
+     */
+    private int journalSize;
+    /**
+     * The amount of journaled plays including undone plays that can be redone
+     */
+    private int journalLength;
+    /**
+     * Told about every cell that changes
+     */
+    private final ArrayList<BoardListener> listeners;
 
     /**
      * Constructor for objects of class BoardDataStructure
@@ -43,14 +87,30 @@ public class Board
      * knows its adjacent squares (technically referred to as nodes)
      */
     public Board(int height, int width)
+    {
+        this(height, width, Topology.GRID);
+    }
+    /**
+     * Builds a board of variable dimensions whose squares are connected by the given topology
+     */
+    public Board(int height, int width, Topology topology)
     {
         this.height = height;
         this.width = width;
-        this.board = board;
         this.playedCards = playedCards;
         buildPlayedCards();
-        initializeBoard();
-        buildBoard();
+        this.adjacency = AdjacencyTable.forShape(height, width, topology);
+        this.ownerCounts = new int[Owner.NEUTRAL + 1];
+        this.filledCount = 0;
+        //A play can only flip its neighbours and every node is played once, so the edges bound the flips
+        this.journalIndexes = new int[getTotalIndexes()];
+        this.journalCards = new Card[getTotalIndexes()];
+        this.journalFlipEnds = new int[getTotalIndexes()];
+        this.flipIndexes = new int[this.adjacency.getNeighbours().length];
+        this.flipOwners = new byte[this.adjacency.getNeighbours().length];
+        this.journalSize = 0;
+        this.journalLength = 0;
+        this.listeners = new ArrayList<BoardListener>();
     }
     /**
      * Getter for all played cards.
@@ -89,6 +149,27 @@ public class Board
         Node thisNode = getPlayedCardNode(i);
         thisNode.setCard(card);
         this.setPlayedCardNode(i, thisNode);
+        fireCellChanged(i);
+    }
+    /**
+     * Adds a listener told about every cell that changes
+     */
+    public void addBoardListener(BoardListener listener){
+        this.listeners.add(listener);
+    }
+    /**
+     * Removes a listener added with addBoardListener
+     */
+    public void removeBoardListener(BoardListener listener){
+        this.listeners.remove(listener);
+    }
+    /**
+     * Tells every listener a cell changed
+     */
+    private void fireCellChanged(int boardIndex){
+        for(int i = 0; i < this.listeners.size(); i++){
+            this.listeners.get(i).cellChanged(boardIndex);
+        }
     }
     /**
      * Initializes an array of empty nodes matching the dimensions of the board
@@ -100,12 +181,6 @@ public class Board
             this.setPlayedCardNode(i, node);
         }
     }
-    /**
-     * Sets the array size of the board. Used when initializing and assigning value to the board attribute.
-     */
-    private void setBoardSize(int size){
-        this.board = new ArrayList[size];
-    }
     /**
      * Checks if a card can be played at an index
      * then returns a value indicating if a card can be played there.
@@ -130,9 +205,164 @@ public class Board
      * @param card the card to be removed from a card collection and played on the board at the given index
      */
     public void playCardAt(int boardIndex, Card card){
-        setNodeCard(boardIndex, card);
+        applyPlay(boardIndex, card);
+        //A new play replaces any undone plays
+        this.journalLength = this.journalSize;
+    }
+    /**
+     * Plays a card and records the play and the owners it changes in the journal
+     */
+    private void applyPlay(int boardIndex, Card card){
+        int play = this.journalSize;
+        this.journalIndexes[play] = boardIndex;
+        this.journalCards[play] = card;
+        this.journalFlipEnds[play] = play == 0 ? 0 : this.journalFlipEnds[play - 1];
+        this.journalSize++;
+        placeCard(boardIndex, card);
         captureAdjacentCards(boardIndex, card);
     }
+    /**
+     * Checks if there is a play to undo
+     */
+    public boolean canUndo(){
+        return this.journalSize > 0;
+    }
+    /**
+     * Checks if there is an undone play to redo
+     */
+    public boolean canRedo(){
+        return this.journalSize < this.journalLength;
+    }
+    /**
+     * Getter for the amount of plays on the board that can be undone
+     */
+    public int getPlayCount(){
+        return this.journalSize;
+    }
+    /**
+     * Copies the indexes of the cards the last play captured, in the order they were captured
+     * @param flips receives the indexes, needs room for as many neighbours as a node has
+     * @return the amount of cards captured
+     */
+    public int getLastPlayFlips(int[] flips){
+        if(this.journalSize == 0){
+            return 0;
+        }
+        return getPlayFlips(this.journalSize - 1, flips);
+    }
+    /**
+     * Getter for the index a play on the board was made on
+     * @param play the play's place in the order of plays, below getPlayCount
+     */
+    public int getPlayIndex(int play){
+        return this.journalIndexes[play];
+    }
+    /**
+     * Getter for the card a play on the board put down
+     * @param play the play's place in the order of plays, below getPlayCount
+     */
+    public Card getPlayCard(int play){
+        return this.journalCards[play];
+    }
+    /**
+     * Copies the indexes of the cards a play captured, in the order they were captured
+     * @param play the play's place in the order of plays, below getPlayCount
+     * @param flips receives the indexes, needs room for as many neighbours as a node has
+     * @return the amount of cards captured
+     */
+    public int getPlayFlips(int play, int[] flips){
+        int flipStart = play == 0 ? 0 : this.journalFlipEnds[play - 1];
+        int flipCount = this.journalFlipEnds[play] - flipStart;
+        System.arraycopy(this.flipIndexes, flipStart, flips, 0, flipCount);
+        return flipCount;
+    }
+    /**
+     * Takes back the last play: gives every card it captured back to its previous owner
+     * and empties the node it was played on. Takes time proportional to the captures of the play.
+     * @return the card that was played, so it can go back to its hand
+     */
+    public Card undoLastPlay(){
+        this.journalSize--;
+        int play = this.journalSize;
+        int flipStart = play == 0 ? 0 : this.journalFlipEnds[play - 1];
+        for(int i = this.journalFlipEnds[play] - 1; i >= flipStart; i--){
+            changeOwner(this.flipIndexes[i], this.flipOwners[i]);
+        }
+        int boardIndex = this.journalIndexes[play];
+        Card card = this.journalCards[play];
+        removeCard(boardIndex, card);
+        return card;
+    }
+    /**
+     * Plays the last undone play again, capturing the same cards it did the first time
+     * @return the card that was played, so it can be taken from its hand
+     */
+    public Card redoPlay(){
+        int play = this.journalSize;
+        Card card = this.journalCards[play];
+        applyPlay(this.journalIndexes[play], card);
+        return card;
+    }
+    /**
+     * Empties a node, keeping the hash and counts in step
+     */
+    private void removeCard(int boardIndex, Card card){
+        int owner = card.getOwner();
+        this.hash ^= Zobrist.cardKey(boardIndex, card.getPackedRanks());
+        if(owner == Owner.PLAYER_TWO){
+            this.hash ^= Zobrist.ownerKey(boardIndex);
+        }
+        this.ownerCounts[owner]--;
+        this.filledCount--;
+        this.getPlayedCardNode(boardIndex).clearCard();
+        fireCellChanged(boardIndex);
+    }
+    /**
+     * Gives the card at a node to another owner, keeping the hash and counts in step
+     */
+    private void changeOwner(int boardIndex, int newOwner){
+        Card card = this.getPlayedCardNode(boardIndex).getCard();
+        int oldOwner = card.getOwner();
+        if(oldOwner != newOwner){
+            this.hash ^= Zobrist.ownerKey(boardIndex);
+            this.ownerCounts[oldOwner]--;
+            this.ownerCounts[newOwner]++;
+            card.setOwner(newOwner);
+            fireCellChanged(boardIndex);
+        }
+    }
+    /**
+     * Puts a card on an empty node without capturing anything or journaling it.
+     * Used to rebuild a board from another representation; plays should use playCardAt.
+     */
+    public void placeCard(int boardIndex, Card card){
+        setNodeCard(boardIndex, card);
+        int owner = card.getOwner();
+        this.hash ^= Zobrist.cardKey(boardIndex, card.getPackedRanks());
+        if(owner == Owner.PLAYER_TWO){
+            this.hash ^= Zobrist.ownerKey(boardIndex);
+        }
+        this.ownerCounts[owner]++;
+        this.filledCount++;
+    }
+    /**
+     * Getter for the amount of nodes holding a card
+     */
+    public int getFilledCount(){
+        return this.filledCount;
+    }
+    /**
+     * Checks if every node holds a card, which ends the game
+     */
+    public boolean isFull(){
+        return this.filledCount == this.getTotalIndexes();
+    }
+    /**
+     * Getter for the Zobrist hash of the cards and owners on the board
+     */
+    public long getHash(){
+        return this.hash;
+    }
     /**
      * Getter for board height. shouldn't change after construction of board.
      */
@@ -140,21 +370,13 @@ public class Board
         return this.height;
     }
     /**
-     * Iterates through every card on the board and adds to the player count total if it equals the input string
-     * @param player the owner attribute that's either "Player 1" or "Player 2"
-     * @return the amount of cards a player has on the board
+     * Gets the amount of cards an owner has on the board from the counts kept up to date by plays
+     * and captures
+     * @param owner the owner id, Owner.PLAYER_ONE or Owner.PLAYER_TWO
+     * @return the amount of cards the owner has on the board
      */
-    public int getPlayedCardTotal(String player){
-        int playedCardTotal = 0;
-        for(Node node: getPlayedCards()){
-            if(node.getHasCard()){
-                String cardOwner = node.getCard().getOwner();
-                if(cardOwner.equals(player)){
-                    playedCardTotal += 1;
-                }
-            }
-        }
-        return playedCardTotal;
+    public int getPlayedCardTotal(int owner){
+        return this.ownerCounts[owner];
     }
     /**
      * Checks adjacent nodes at an index and captures all possible cards
@@ -162,18 +384,26 @@ public class Board
      * @param is the Card passed into play card at by a player.
      */
     private void captureAdjacentCards(int index, Card card){
-        Card targetCard;
-        for(WeightedEdge adjacentEdge: this.getAdjacencies(index)){
-            Node adjacentNode = adjacentEdge.getToNode();
-            int adjacentNodeIndex = adjacentNode.getIndex();
-            int sideAdjacentIndex = adjacentEdge.getEdgeWeight() - 1;
+        int[] neighbours = this.adjacency.getNeighbours();
+        byte[] sides = this.adjacency.getSides();
+        int end = this.adjacency.getOffsets()[index + 1];
+        for(int edge = this.adjacency.getOffsets()[index]; edge < end; edge++){
+            Node adjacentNode = this.getPlayedCardNode(neighbours[edge]);
             if(adjacentNode.getHasCard()){
-                targetCard = adjacentNode.getCard();
-                boolean capturesCard = card.compareTo(targetCard, sideAdjacentIndex);
-                if(capturesCard){
+                Card targetCard = adjacentNode.getCard();
+                boolean capturesCard = card.compareTo(targetCard, sides[edge]);
+                int targetOwner = targetCard.getOwner();
+                int newOwner = card.getOwner();
+                if(capturesCard && targetOwner != newOwner){
+                    int flip = this.journalFlipEnds[this.journalSize - 1]++;
+                    this.flipIndexes[flip] = adjacentNode.getIndex();
+                    this.flipOwners[flip] = (byte) targetOwner;
+                    this.hash ^= Zobrist.ownerKey(adjacentNode.getIndex());
+                    this.ownerCounts[targetOwner]--;
+                    this.ownerCounts[newOwner]++;
                     Card capturedCard = card.capture(targetCard);
-                    this.setNodeCard(adjacentNodeIndex, capturedCard);
-                }   
+                    this.setNodeCard(adjacentNode.getIndex(), capturedCard);
+                }
             }
         }
         
@@ -191,80 +421,31 @@ public class Board
         return this.getHeight()*this.getWidth();
     }
     /**
-     * Initializes the adjacency list board by adding i ArrayLists for every node
+     * Getter for the shared adjacency table of this board's shape
      */
-    private void initializeBoard(){
-        this.setBoardSize(this.getTotalIndexes());
-        for (int i = 0; i < this.getPlayedCards().length ; i++){
-            this.board[i] = new ArrayList<WeightedEdge>();
-        }
+    public AdjacencyTable getAdjacencyTable(){
+        return this.adjacency;
     }
     /**
-     * Creates an edge to be added to the adjacency list
+     * Getter for how the board's squares are connected
      */
-    private WeightedEdge buildEdge(Node source, Node destination, int weight){
-        WeightedEdge newEdge = new WeightedEdge(source, destination, weight);
-        return newEdge;
+    public Topology getTopology(){
+        return this.adjacency.getTopology();
     }
     /**
-     * Getter for the array of adjacency lists that make up the board
-     */
-    private ArrayList<WeightedEdge>[] getWholeBoard(){
-        return this.board;
-    }
-    /**
-     * Returns the adjacencies of
+     * Returns the adjacencies of a node as weighted edges.
+     * The edges are built from the adjacency table when asked for. The edge weights indicate
+     * the direction up: 1, right: 2, down: 3 and left: 4 (the side of the card facing that node plus one).
      */
     public ArrayList<WeightedEdge> getAdjacencies(int index){
-        return this.getWholeBoard()[index];
-    }
-    /**
-     * setter for an adjacency list of a node.
-     * indexes of the array represent the index of a node
-     */
-    private void addAdjacency(WeightedEdge edge, int index){
-        this.board[index].add(edge);
-    }
-    /**
-     * Builds the adjacency list representation of the directed graph board.
-     * The edge weights indicate the direction up: 1, right: 2, down: 3 and left: 4
-     * If a node isn't a (direction)Border then adds an edge in that direction to the
-     * node in that direction.
-     */
-    private void buildBoard(){
-        int width = this.getWidth();
-        for(int i = 0; i < this.getTotalIndexes(); i++){
-            //Monolith code I know
-            boolean topBorder = i - width < 0;
-            int topNode = i - width;
-            boolean rightBorder = (i + 1) % width == 0;
-            int rightNode = i + 1;
-            boolean bottomBorder = i + width >= this.getTotalIndexes();
-            int bottomNode = i + width;
-            boolean leftBorder = i % width == 0;
-            int leftNode = i - 1;
-            //If it isn't a (direction) border, draw an edge to the node (direction) it 
-            //Then add it to that node's adjacency list
-            if(!topBorder){
-                WeightedEdge topEdge = this.buildEdge(this.getPlayedCardNode(i), 
-                this.getPlayedCardNode(topNode), 1);
-                this.addAdjacency(topEdge, i);
-            }
-            if(!rightBorder){
-                WeightedEdge rightEdge = this.buildEdge(this.getPlayedCardNode(i), 
-                this.getPlayedCardNode(rightNode), 2);
-                this.addAdjacency(rightEdge, i);
-            }
-            if(!bottomBorder){
-                WeightedEdge bottomEdge = this.buildEdge(this.getPlayedCardNode(i), 
-                this.getPlayedCardNode(bottomNode), 3);
-                this.addAdjacency(bottomEdge, i);
-            }
-            if(!leftBorder){
-                WeightedEdge leftEdge = this.buildEdge(this.getPlayedCardNode(i), 
-                this.getPlayedCardNode(leftNode), 4);
-                this.addAdjacency(leftEdge, i);
-            }
+        ArrayList<WeightedEdge> adjacencies = new ArrayList<WeightedEdge>();
+        int[] neighbours = this.adjacency.getNeighbours();
+        byte[] sides = this.adjacency.getSides();
+        int end = this.adjacency.getOffsets()[index + 1];
+        for(int edge = this.adjacency.getOffsets()[index]; edge < end; edge++){
+            adjacencies.add(new WeightedEdge(this.getPlayedCardNode(index),
+            this.getPlayedCardNode(neighbours[edge]), sides[edge] + 1));
         }
+        return adjacencies;
     }
 }
@@ -0,0 +1,15 @@
+/**
+ * Told about every change to a Board's cells: a card played or taken back, or a card changing owner
+ * when it is captured or its capture is undone. Lets a view redraw only the cells that changed.
+ * Listeners are called on the thread changing the board, while it changes.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public interface BoardListener
+{
+    /**
+     * Called after the card on a cell was placed, removed or changed owner
+     * @param boardIndex the index of the cell
+     */
+    void cellChanged(int boardIndex);
+}
@@ -0,0 +1,58 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+/**
+ * Reuses direct ByteBuffers of one size so connections coming and going don't allocate off-heap memory each time.
+ * Direct buffers are slow to allocate and free but let the channel read and write without a copy.
+ * A pool is not thread safe, the BinaryGameServer only uses it from its selector thread.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class BufferPool
+{
+    /**
+     * The capacity of every buffer in bytes
+     */
+    private final int bufferSize;
+    /**
+     * The most released buffers kept for reuse
+     */
+    private final int maxPooled;
+    /**
+     * Buffers released and ready for reuse
+     */
+    private final ArrayDeque<ByteBuffer> pooled;
+
+    /**
+     * Creates an empty pool
+     * @param bufferSize the capacity of every buffer in bytes
+     * @param maxPooled the most released buffers kept, the rest are left to the garbage collector
+     */
+    public BufferPool(int bufferSize, int maxPooled)
+    {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+        this.pooled = new ArrayDeque<ByteBuffer>();
+    }
+    /**
+     * Takes a cleared buffer from the pool, allocating one if the pool is empty
+     */
+    public ByteBuffer acquire(){
+        ByteBuffer buffer = this.pooled.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(this.bufferSize);
+    }
+    /**
+     * Gives a buffer back to the pool. It must not be used afterwards.
+     */
+    public void release(ByteBuffer buffer){
+        if(this.pooled.size() < this.maxPooled){
+            buffer.clear();
+            this.pooled.push(buffer);
+        }
+    }
+    /**
+     * Getter for the amount of buffers ready for reuse
+     */
+    public int getPooledCount(){
+        return this.pooled.size();
+    }
+}
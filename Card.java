@@ -9,90 +9,70 @@ import java.util.Arrays;
  * For gameplay purposes - not Collector's purposes - only the ranks of a card are important.
  * In normal cases, cards have unique non-randomly generated ranks, however these ranks
  * are randomly generated for demonstration purposes.
+ * A Card is a shared, immutable CardDefinition holding the name and ranks plus the owner
+ * it has in one game, so games only allocate the small Card and never a copy of the ranks.
  * @author Keagen Thomson
  * @version 1.0.0
  */
 public class Card
 {
     /**
-     * The card's name, based on the final fantasy monster it's derived from
+     * The card's shared name, ranks and image key
      */
-    private String name;
-    /**
-     * The number on the top side of the card indicating its directional strength
-     */
-    private int rankTop;
-    /**
-     * the number on the right side of the card indicating its directional strength
-     */
-    private int rankRight;
-    /**
-     * the number on the bottom of the card indicating its directional strength
-     */
-    private int rankBottom;
-    /**
-     * the number on the left of the card indicating its directional strength
-     */
-    private int rankLeft;
+    private CardDefinition definition;
     /**
      * An unused variable indicating a card's uniqueID in the event a card needs a natural order
      * or its name no longer becomes unique
      */
     private int uniqueID;
     /**
-     * A list built from the integer ranks in the clockwise order of Top, right, bottom and left
-     */
-    private ArrayList<Integer> ranks;
-    /**
-     * The color of a card, which indicates the player that currently has control over it
-     */
-    private String color;
-    /**
-     * The owner of a card which indicates player of this card. Currently only "Player 1" or "Player 2"
-     * but future functionality will replace these with variables dependant on user input for card names.
+     * The owner id of the player that currently has control over the card, one of the Owner constants.
+     * The view draws the card's color from it with Owner.colorOf.
      */
-    private String owner;
+    private byte owner;
     //used when generating random card ranks
     
     /**
      * Constructor for objects of class Card
      * @param name the card's unique name also used for its image
      * @param rankTop the rank at the top edge of the card. True for each respective rank
-     * @param owner the owner of the card being played. changes when captured and determines color background
+     * @param owner the owner id of the card being played. changes when captured and determines color background
      */
     public Card(String name, int rankTop, int rankRight, int rankBottom, int rankLeft,
-    String owner)
+    int owner)
     {
-        this.name = name;
-        this.rankTop = rankTop;
-        this.rankRight = rankRight;
-        this.rankBottom = rankBottom;
-        this.rankLeft = rankLeft;
-        //Builds a mutable list of ranks in clockwise order.
-        //Used mostly so we can rotate the ranks in a given direction
-        this.ranks = new ArrayList<Integer>(Arrays.asList(this.rankTop, this.rankRight, this.rankBottom
-        ,this.rankLeft));
-        this.owner = owner;
-        this.color = "Neutral";
+        this(CardDefinition.of(name, packRanks(rankTop, rankRight, rankBottom, rankLeft)), owner);
     }
     /**
      * Overloaded constructor used when a card's ranks are randomly generated
      */
-    public Card(String name, ArrayList<Integer> ranks, String owner)
+    public Card(String name, ArrayList<Integer> ranks, int owner)
+    {
+        this(CardDefinition.of(name, packRanks(ranks.get(0), ranks.get(1), ranks.get(2), ranks.get(3))), owner);
+    }
+    /**
+     * Creates a card in a game from a shared definition
+     * @param definition the card's name and ranks
+     * @param owner the owner id of the card in this game
+     */
+    public Card(CardDefinition definition, int owner)
     {
-        this.name = name;
-        this.owner = owner;
-        this.rankTop = ranks.get(0);
-        this.rankRight = ranks.get(1);
-        this.rankBottom = ranks.get(2);
-        this.rankLeft = ranks.get(3);
-        this.ranks = ranks;
-        this.color = "Neutral";
+        this.definition = definition;
+        this.owner = (byte) owner;
     }
     /**
      * Rotates ranks Clockwise by 1-Step.
      * I may add "Hero power" functionality later that would make this useful.
-     * works by popping the top of a stack and unshifting the same value to the first index
+     * works by moving the left nibble to the top and shifting the others up one side,
+     * then switching to the shared definition with the rotated ranks.
+     */
+    public void rotate(){
+        int packedRanks = getPackedRanks();
+        this.definition = this.definition.withRanks(((packedRanks << 4) | (packedRanks >>> 12)) & 0xFFFF);
+    }
+    /**
+     * Rotates a list of ranks Clockwise by 1-Step and sets them as this card's ranks.
+     * Kept for compatibility with code working on rank lists, prefer rotate().
      */
     public void rotate(ArrayList<Integer> ranks){
         //inserts the last index value at the initial index and shifts items up one index
@@ -103,20 +83,40 @@ public class Card
         setRanks(ranks);
     }
     /**
-     * Card Ranks Getter
+     * Card Ranks Getter.
+     * Compatibility view of the packed ranks as a new list in clockwise order,
+     * changing the list does not change the card. Use getRank in loops since this allocates.
      */
     public ArrayList<Integer> getRanks(){
-        return this.ranks;
+        return new ArrayList<Integer>(Arrays.asList(getRank(0), getRank(1), getRank(2), getRank(3)));
+    }
+    /**
+     * Gets the rank of a single side without allocating
+     * @param side should be a value 0 - 3 clockwise from the top
+     */
+    public int getRank(int side){
+        return rankOf(this.definition.getPackedRanks(), side);
+    }
+    /**
+     * Getter for the four ranks packed into one int, top in the lowest nibble
+     */
+    public int getPackedRanks(){
+        return this.definition.getPackedRanks();
+    }
+    /**
+     * Getter for the card's shared definition
+     */
+    public CardDefinition getDefinition(){
+        return this.definition;
     }
     /**
      * Return ranks as a String
      */
     public String stringRanks(){
         String stringRanks = "";
-        int size = this.getRanks().size();
-        for(int i = 0; i < size; i++)
+        for(int i = 0; i < 4; i++)
         {
-            stringRanks = stringRanks.concat(this.getRanks().get(i) + " ");
+            stringRanks = stringRanks.concat(this.getRank(i) + " ");
         }
         return stringRanks;
     }
@@ -125,51 +125,61 @@ public class Card
      * @param up the Top edge's rank etc.
      */
     public void setRanks(int up, int right, int down, int left){
-        this.ranks = new ArrayList<Integer>(Arrays.asList(up, right, down , left));
+        this.definition = this.definition.withRanks(packRanks(up, right, down, left));
     }
     public void setRanks(ArrayList<Integer> ranks){
-        this.ranks = ranks;
+        this.definition = this.definition.withRanks(packRanks(ranks.get(0), ranks.get(1), ranks.get(2), ranks.get(3)));
+    }
+    /**
+     * Packs four ranks in clockwise order into one int, top in the lowest nibble
+     */
+    public static int packRanks(int up, int right, int down, int left){
+        return (up & 0xF) | (right & 0xF) << 4 | (down & 0xF) << 8 | (left & 0xF) << 12;
+    }
+    /**
+     * Reads the rank of one side out of packed ranks
+     * @param side should be a value 0 - 3 clockwise from the top
+     */
+    public static int rankOf(int packedRanks, int side){
+        return (packedRanks >>> (side << 2)) & 0xF;
+    }
+    /**
+     * Compares the side of an attacking card to the adjacent side of a defending card
+     * using packed ranks. This is the innermost check of every capture.
+     * @param side the attacking card's side facing the defending card
+     * @return true if the attacking card captures the defending card
+     */
+    public static boolean captures(int attackerRanks, int defenderRanks, int side){
+        return rankOf(attackerRanks, side) > rankOf(defenderRanks, opposite(side));
     }
     /**
      * Card name Getter
      * Used partly to draw the card's image
      */
     public String getName(){
-        return this.name;
+        return this.definition.getName();
     }
     /**
-     * Card color Getter. Visually Indicates who currently controls a card.
-     * Also used partly to draw the card's color
+     * Getter for the key of the card's face image
      */
-    public String getColor(){
-        return this.color;
+    public String getImageKey(){
+        return this.definition.getImageKey();
     }
     /**
      * Card owner Getter
-     * used when determining a card's color
+     * used when capturing and when determining a card's color
+     * @return the owner id, one of the Owner constants
      */
-    public String getOwner(){
+    public int getOwner(){
         return this.owner;
     }
     /**
      * Card  owner Setter
      * used when a card is captured
+     * @param newOwner the owner id, one of the Owner constants
      */
-    public void setOwner(String newOwner){
-        this.owner = newOwner;
-        this.updateColor();
-    }
-    /**
-     * used to update a color if a card has a new owner
-     */
-    public void updateColor(){
-        if(this.getOwner() == "Player 1"){
-            this.color = "Blue";
-        } else if(this.getOwner() == "Player 2"){
-            this.color = "Red";
-        } else {
-            this.color = "Neutral"; 
-        }
+    public void setOwner(int newOwner){
+        this.owner = (byte) newOwner;
     }
     /**
      * Overrided equals method used to get a card with a specific name input as a string
@@ -207,36 +217,22 @@ public class Card
      * and returns a boolean 
      */
     public boolean compareTo(Card that, int side){
-        boolean captures = false;
-        ArrayList<Integer> thisRanks = this.getRanks();
-        ArrayList<Integer> thatRanks = that.getRanks();
-        if(thisRanks.get(side) > thatRanks.get(opposite(side))){
-            captures = true;
-        }
-        return captures;
+        return captures(getPackedRanks(), that.getPackedRanks(), side);
     }
     /**
      * Returns the index for the opposite side of a card.
      * Used when comparing adjacent cards to get the correct side value.
      * @param SideIndex should be a value 0 - 3
      */
-    private int opposite(int sideIndex){
-        int opposite;
-        if(sideIndex < 2){
-            opposite = sideIndex + 2;
-        } else if(sideIndex >= 2){
-            opposite = sideIndex - 2;
-        } else {
-            opposite = -1;
-        }
-        return opposite;
+    private static int opposite(int sideIndex){
+        return (sideIndex + 2) & 3;
     }
     /**
      * Changes the target card's owner to the capturing card's owner
      * which updates its color and returns the captured card
      */
     public Card capture(Card that){
-        String targetNewOwner = this.getOwner();
+        int targetNewOwner = this.getOwner();
         that.setOwner(targetNewOwner);
         return that;
     }
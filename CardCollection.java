@@ -2,6 +2,7 @@ import java.util.ArrayList;
 import java.util.Random;
 import java.awt.Point;
 import java.util.Collections;
+import java.util.SplittableRandom;
 /**
  * A Generic Collection of cards
  * modified by Keagen Thomson
@@ -138,6 +139,16 @@ public class CardCollection
         Collections.shuffle(this.cards);
     }
     
+    /**
+     * Shuffles the Card Collection instance with a given random source
+     * so the order can be reproduced from a seed
+     */
+    public void shuffle(SplittableRandom random) {
+        for (int i = this.cards.size() - 1; i > 0; i--) {
+            this.cards.set(i, this.cards.set(random.nextInt(i + 1), this.cards.get(i)));
+        }
+    }
+    
     /**
      * Swaps the cards at indexes i and j.
      */
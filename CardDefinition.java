@@ -0,0 +1,130 @@
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+/**
+ * The parts of a card that never change during a game: its name, its ranks and the key of the image it's drawn with.
+ * Definitions are immutable and interned, so every card with the same name and ranks shares one definition
+ * across every game running in the JVM. What a game changes, the owner, lives on the Card that wraps the definition.
+ * Each name used gets a table of the 10,000 rank combinations, 40KB with compressed references,
+ * and there are only a dozen names.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public final class CardDefinition
+{
+    /**
+     * The amount of rank combinations, four sides ranked 1 to 10
+     */
+    private static final int RANK_COMBINATIONS = 10000;
+    /**
+     * Every interned definition, first by name then indexed by packed ranks.
+     * Looking up ranks is an array read so creating cards never boxes a key.
+     */
+    private static final ConcurrentHashMap<String, AtomicReferenceArray<CardDefinition>> DEFINITIONS =
+        new ConcurrentHashMap<String, AtomicReferenceArray<CardDefinition>>();
+    /**
+     * The card's name, based on the final fantasy monster it's derived from
+     */
+    private final String name;
+    /**
+     * The four ranks packed into one int, top in the lowest nibble then right, bottom and left
+     */
+    private final int packedRanks;
+    /**
+     * The key of the card's face image, the file name prefix in Assets
+     */
+    private final String imageKey;
+
+    /**
+     * Definitions are only created through of so they can be shared
+     */
+    private CardDefinition(String name, int packedRanks)
+    {
+        this.name = name;
+        this.packedRanks = packedRanks;
+        this.imageKey = name;
+    }
+    /**
+     * Gets the shared definition of a card, creating it the first time it's asked for
+     * @param name the card's name, also its image key
+     * @param packedRanks the ranks packed with Card.packRanks
+     */
+    public static CardDefinition of(String name, int packedRanks){
+        AtomicReferenceArray<CardDefinition> byRanks = DEFINITIONS.get(name);
+        if(byRanks == null){
+            AtomicReferenceArray<CardDefinition> created = new AtomicReferenceArray<CardDefinition>(RANK_COMBINATIONS);
+            byRanks = DEFINITIONS.putIfAbsent(name, created);
+            if(byRanks == null){
+                byRanks = created;
+            }
+        }
+        int index = rankIndex(packedRanks);
+        if(index < 0){
+            return new CardDefinition(name, packedRanks);
+        }
+        CardDefinition definition = byRanks.get(index);
+        if(definition == null){
+            CardDefinition created = new CardDefinition(name, packedRanks);
+            definition = byRanks.compareAndSet(index, null, created) ? created : byRanks.get(index);
+        }
+        return definition;
+    }
+    /**
+     * Maps packed ranks to their spot in a name's table, reading each side as a digit from 0 to 9
+     * @return the index or -1 if a rank is outside 1 to 10, those definitions are not shared
+     */
+    private static int rankIndex(int packedRanks){
+        int index = 0;
+        for(int side = 3; side >= 0; side--){
+            int rank = Card.rankOf(packedRanks, side);
+            if(rank < 1 || rank > 10){
+                return -1;
+            }
+            index = index * 10 + rank - 1;
+        }
+        return index;
+    }
+    /**
+     * Gets the shared definition of a card with the same name and new ranks, used when a card is rotated
+     */
+    public CardDefinition withRanks(int packedRanks){
+        return packedRanks == this.packedRanks ? this : of(this.name, packedRanks);
+    }
+    /**
+     * The amount of definitions interned so far
+     */
+    public static int getInternedCount(){
+        int count = 0;
+        for(AtomicReferenceArray<CardDefinition> byRanks: DEFINITIONS.values()){
+            for(int i = 0; i < byRanks.length(); i++){
+                if(byRanks.get(i) != null){
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+    /**
+     * Getter for the card's name
+     */
+    public String getName(){
+        return this.name;
+    }
+    /**
+     * Getter for the four packed ranks
+     */
+    public int getPackedRanks(){
+        return this.packedRanks;
+    }
+    /**
+     * Getter for the key of the card's face image
+     */
+    public String getImageKey(){
+        return this.imageKey;
+    }
+    /**
+     * Shows the name and ranks of the definition
+     */
+    public String toString(){
+        return this.name + " " + Integer.toHexString(this.packedRanks);
+    }
+}
@@ -62,7 +62,7 @@ public class ClickState
         int widthIndex = p.x/ 200;
         int heightIndex = p.y/ 200;
         //If it's in the active hand column and clicked on a card
-        boolean validHandClick = widthIndex == playerBoardLocation && heightIndex <= maxHand;
+        boolean validHandClick = widthIndex == playerBoardLocation && heightIndex < maxHand;
         boolean isBoardClick = (widthIndex > 0 && widthIndex < 4) && (heightIndex > 0 && heightIndex < 4);
         if(isBoardClick){
             int boardIndex = calculateBoardIndex(widthIndex, heightIndex);
@@ -121,7 +121,7 @@ public class ClickState
         this.setLastClickedOnBoard(false);
     }
     /**
-     * Gets the max size of a hand.
+     * Gets the size of a hand, one past its last index.
      * Used when calculating the index clicked on.
      */
     private int getHandMaxIndex(Player player){
@@ -169,13 +169,11 @@ public class ClickState
     /**
      * Checks if a spot on the board has been clicked and a card in hand has been clicked, then functions
      * as a setter method for the playPossible attribute.
-     * Sets to True if this object knows that a card has been clicked and a board index has been clicked
+     * Sets to True if this object knows that a card has been clicked and a board index has been clicked,
+     * and back to False once either is cleared so a play isn't made with the last player's clicks
      */
     public void updatePlayPossible(){
-        boolean playPossible = getHasHandIndex() && getHasBoardIndex() && getLastClickedOnBoard();
-        if(playPossible){
-            this.playPossible = true;
-        }
+        this.playPossible = getHasHandIndex() && getHasBoardIndex() && getLastClickedOnBoard();
     }
     /**
      * Getter for the boolean attribute playPossible
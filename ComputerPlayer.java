@@ -0,0 +1,69 @@
+
+/**
+ * A computer opponent that picks its plays by searching the game tree.
+ * It reads the model into a GamePosition, searches it with a MoveSearch
+ * (an AlphaBetaSearch by default) and answers with the hand index and board index
+ * of the best play, the same indexes a ClickState produces from mouse clicks.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class ComputerPlayer
+{
+    /**
+     * The owner id of the player this opponent plays for, Owner.PLAYER_ONE or Owner.PLAYER_TWO
+     */
+    private final int owner;
+    /**
+     * How long a search may take in milliseconds
+     */
+    private final long timeLimitMillis;
+    /**
+     * The memory given to the transposition table, positions from earlier turns stay in it
+     */
+    private static final long TABLE_BYTES = 16L * 1024 * 1024;
+    /**
+     * The search reused for every turn
+     */
+    private final MoveSearch search;
+
+    /**
+     * Creates a computer opponent
+     * @param owner the owner id of the player it controls
+     * @param timeLimitMillis the time budget per play, 0 to always search to the end of the game
+     */
+    public ComputerPlayer(int owner, long timeLimitMillis)
+    {
+        this(owner, new AlphaBetaSearch(new TranspositionTable(TABLE_BYTES)), timeLimitMillis);
+    }
+    /**
+     * Creates a computer opponent using a specific search
+     * @param owner the owner id of the player it controls
+     * @param search the search used to pick plays
+     * @param timeLimitMillis the time budget per play, 0 for the search's own limit
+     */
+    public ComputerPlayer(int owner, MoveSearch search, long timeLimitMillis)
+    {
+        this.owner = owner;
+        this.timeLimitMillis = timeLimitMillis;
+        this.search = search;
+    }
+    /**
+     * Getter for the owner id of the player this opponent plays for
+     */
+    public int getOwner(){
+        return this.owner;
+    }
+    /**
+     * Checks if it is this opponent's turn in a model that isn't finished yet
+     */
+    public boolean isTurn(TripleTriadModel model){
+        return !model.getGameFinished() && model.getActivePlayer().getOwner() == this.owner;
+    }
+    /**
+     * Searches the model's current position for the best play
+     */
+    public SearchResult chooseMove(TripleTriadModel model){
+        GamePosition position = GamePosition.fromModel(model);
+        return this.search.search(position, this.timeLimitMillis);
+    }
+}
@@ -0,0 +1,267 @@
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+/**
+ * Generates deals in bulk into primitive arrays or a ByteBuffer, without creating any HiddenCardPool, Hand or Card.
+ * A deal is the 5 cards each player is dealt and the player who goes first. The rules are those of
+ * HiddenCardPool.generateCardPool and Hand.buildHand: each player draws 5 different monsters from their own
+ * pool of 12, boss monsters get 3 high rank sides and the others 1 to 4.
+ * Every deal has its own random source derived from the seed and the deal's index, so a deal is the same
+ * however the batch is split and whichever thread generates it, and parallel output matches sequential output.
+ * A card is stored as an int, the monster's index in the pool shifted left 16 bits then its packed ranks.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class DealGenerator
+{
+    /**
+     * Cards dealt to each player
+     */
+    public static final int HAND_SIZE = 5;
+    /**
+     * The amount of cards in one deal, both players' hands
+     */
+    public static final int CARDS_PER_DEAL = Owner.PLAYER_COUNT * HAND_SIZE;
+    /**
+     * The bytes one deal takes in a ByteBuffer: the first player, a padding byte, then for Player 1's hand followed
+     * by Player 2's hand the card's pool index as a byte and its packed ranks as a short
+     */
+    public static final int DEAL_BYTES = 2 + CARDS_PER_DEAL * 3;
+    /**
+     * Deals generated by one task when generating in parallel
+     */
+    private static final int CHUNK_DEALS = 8192;
+    /**
+     * The odd constant SplittableRandom steps its seed by, used to space out the seeds of deals
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    /**
+     * The seed every deal is derived from
+     */
+    private final long seed;
+
+    /**
+     * Creates a generator for the deals of a seed
+     */
+    public DealGenerator(long seed)
+    {
+        this.seed = seed;
+    }
+    /**
+     * Getter for the seed every deal is derived from
+     */
+    public long getSeed(){
+        return this.seed;
+    }
+    /**
+     * Creates the random source of one deal. The deal's seed is mixed so neighbouring deals
+     * don't get overlapping streams.
+     */
+    private SplittableRandom randomFor(long dealIndex){
+        long z = this.seed + (dealIndex + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return new SplittableRandom(z ^ (z >>> 31));
+    }
+    /**
+     * Generates one deal
+     * @param dealIndex the index of the deal in the seed's sequence
+     * @param pool a buffer the size of the card pool
+     * @param cards receives CARDS_PER_DEAL cards, Player 1's hand then Player 2's
+     * @param offset where the deal's first card goes in cards
+     * @return the owner id of the player who goes first
+     */
+    public int deal(long dealIndex, int[] pool, int[] cards, int offset){
+        SplittableRandom random = randomFor(dealIndex);
+        dealHand(random, pool, cards, offset);
+        dealHand(random, pool, cards, offset + HAND_SIZE);
+        return random.nextInt(Owner.PLAYER_COUNT);
+    }
+    /**
+     * Draws a hand of different monsters from a fresh pool, like dealing from a shuffled HiddenCardPool
+     * @param pool a buffer the size of the card pool
+     * @param cards receives HAND_SIZE cards
+     */
+    public static void dealHand(SplittableRandom random, int[] pool, int[] cards, int offset){
+        for(int i = 0; i < pool.length; i++){
+            pool[i] = i;
+        }
+        for(int slot = 0; slot < HAND_SIZE; slot++){
+            //Partial Fisher-Yates shuffle, only the dealt cards need to be picked
+            int pick = slot + random.nextInt(pool.length - slot);
+            int cardIndex = pool[pick];
+            pool[pick] = pool[slot];
+            pool[slot] = cardIndex;
+            cards[offset + slot] = encodeCard(cardIndex, HiddenCardPool.generatePackedRanks(cardIndex, random));
+        }
+    }
+    /**
+     * Generates a run of deals into arrays
+     * @param firstDeal the index of the first deal
+     * @param cards receives count * CARDS_PER_DEAL cards
+     * @param firstPlayers receives the owner id of the first player of each deal
+     */
+    public void generate(long firstDeal, int count, int[] cards, byte[] firstPlayers){
+        int[] pool = new int[HiddenCardPool.getPoolSize()];
+        for(int i = 0; i < count; i++){
+            firstPlayers[i] = (byte) deal(firstDeal + i, pool, cards, i * CARDS_PER_DEAL);
+        }
+    }
+    /**
+     * Generates a run of deals into a buffer at its position, DEAL_BYTES per deal, and moves the position past them
+     */
+    public void generate(long firstDeal, int count, ByteBuffer out){
+        int[] pool = new int[HiddenCardPool.getPoolSize()];
+        int[] cards = new int[CARDS_PER_DEAL];
+        int position = out.position();
+        for(int i = 0; i < count; i++){
+            int firstPlayer = deal(firstDeal + i, pool, cards, 0);
+            writeDeal(out, position + i * DEAL_BYTES, firstPlayer, cards);
+        }
+        out.position(position + count * DEAL_BYTES);
+    }
+    /**
+     * Writes a deal at an absolute index of a buffer
+     */
+    private static void writeDeal(ByteBuffer out, int index, int firstPlayer, int[] cards){
+        out.put(index, (byte) firstPlayer);
+        out.put(index + 1, (byte) 0);
+        for(int card = 0; card < CARDS_PER_DEAL; card++){
+            int cardIndex = index + 2 + card * 3;
+            out.put(cardIndex, (byte) cardIndexOf(cards[card]));
+            out.putShort(cardIndex + 1, (short) ranksOf(cards[card]));
+        }
+    }
+    /**
+     * Generates a run of deals into arrays on a thread pool. The output is the same as generate.
+     */
+    public void generateParallel(final long firstDeal, int count, final int[] cards, final byte[] firstPlayers,
+    int threads) throws Exception{
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            ArrayList<Future<?>> chunks = new ArrayList<Future<?>>();
+            for(int start = 0; start < count; start += CHUNK_DEALS){
+                final int chunkStart = start;
+                final int chunkCount = Math.min(CHUNK_DEALS, count - start);
+                chunks.add(executor.submit(() -> {
+                    int[] pool = new int[HiddenCardPool.getPoolSize()];
+                    for(int i = chunkStart; i < chunkStart + chunkCount; i++){
+                        firstPlayers[i] = (byte) deal(firstDeal + i, pool, cards, i * CARDS_PER_DEAL);
+                    }
+                }));
+            }
+            for(Future<?> chunk: chunks){
+                chunk.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+    /**
+     * Generates a run of deals into a buffer on a thread pool. The output is the same as generate.
+     * Each task writes its own range of the buffer with absolute puts.
+     */
+    public void generateParallel(final long firstDeal, int count, ByteBuffer out, int threads) throws Exception{
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final int position = out.position();
+        try {
+            ArrayList<Future<?>> chunks = new ArrayList<Future<?>>();
+            for(int start = 0; start < count; start += CHUNK_DEALS){
+                final int chunkStart = start;
+                final int chunkCount = Math.min(CHUNK_DEALS, count - start);
+                final ByteBuffer chunkOut = out.duplicate();
+                chunks.add(executor.submit(() -> {
+                    int[] pool = new int[HiddenCardPool.getPoolSize()];
+                    int[] cards = new int[CARDS_PER_DEAL];
+                    for(int i = chunkStart; i < chunkStart + chunkCount; i++){
+                        int firstPlayer = deal(firstDeal + i, pool, cards, 0);
+                        writeDeal(chunkOut, position + i * DEAL_BYTES, firstPlayer, cards);
+                    }
+                }));
+            }
+            for(Future<?> chunk: chunks){
+                chunk.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        out.position(position + count * DEAL_BYTES);
+    }
+    /**
+     * Packs a monster's pool index and ranks into one card int
+     */
+    public static int encodeCard(int cardIndex, int packedRanks){
+        return (cardIndex << 16) | packedRanks;
+    }
+    /**
+     * Reads the monster's index in the pool out of a card int
+     */
+    public static int cardIndexOf(int card){
+        return card >>> 16;
+    }
+    /**
+     * Reads the packed ranks out of a card int
+     */
+    public static int ranksOf(int card){
+        return card & 0xFFFF;
+    }
+    /**
+     * Creates a position ready to play from a generated deal
+     * @param cards the generated cards
+     * @param offset where the deal's first card is in cards
+     * @param firstPlayer the owner id of the player who goes first
+     */
+    public static GamePosition toPosition(int[] cards, int offset, int firstPlayer){
+        GamePosition position = new GamePosition(3, 3, Topology.GRID);
+        for(int owner = 0; owner < Owner.PLAYER_COUNT; owner++){
+            for(int slot = 0; slot < HAND_SIZE; slot++){
+                position.setHandCard(owner, slot, ranksOf(cards[offset + owner * HAND_SIZE + slot]));
+            }
+        }
+        position.setSideToMove(firstPlayer);
+        return position;
+    }
+    /**
+     * Generates deals sequentially and in parallel, checks both give the same bytes and prints the rates.
+     * java DealGenerator [deals] [threads] [seed] [output file]
+     * The deals are written to the output file when one is given.
+     */
+    public static void main(String[] args) throws Exception{
+        int deals = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        DealGenerator generator = new DealGenerator(seed);
+        ByteBuffer sequential = ByteBuffer.allocateDirect(deals * DEAL_BYTES);
+        ByteBuffer parallel = ByteBuffer.allocateDirect(deals * DEAL_BYTES);
+        long start = System.nanoTime();
+        generator.generate(0, deals, sequential);
+        long sequentialNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        generator.generateParallel(0, deals, parallel, threads);
+        long parallelNanos = System.nanoTime() - start;
+        sequential.flip();
+        parallel.flip();
+        System.out.printf("%d deals, sequential %.1fM deals/s, %d threads %.1fM deals/s, identical: %b%n",
+            deals, deals * 1000.0 / sequentialNanos, threads, deals * 1000.0 / parallelNanos,
+            sequential.equals(parallel));
+        int[] cards = new int[CARDS_PER_DEAL];
+        byte[] firstPlayers = new byte[1];
+        generator.generate(0, 1, cards, firstPlayers);
+        System.out.println("First deal: " + Arrays.toString(cards) + " first player " + firstPlayers[0]);
+        if(args.length > 3){
+            try(FileChannel channel = new FileOutputStream(args[3]).getChannel()){
+                while(sequential.hasRemaining()){
+                    channel.write(sequential);
+                }
+            }
+            System.out.println("Wrote " + deals * DEAL_BYTES + " bytes to " + args[3]);
+        }
+    }
+}
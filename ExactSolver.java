@@ -0,0 +1,170 @@
+import java.io.IOException;
+/**
+ * Solves open-rules positions exactly: the final score difference with perfect play
+ * from both sides and a move that reaches it.
+ * It is an alpha-beta search to the end of the game that memoizes the bounds it proves
+ * on every position in a SolverCache. Since positions are always searched to the end,
+ * bounds stay valid forever, so solving the first position of a deal also answers most
+ * of the positions reached later in that game, and a cache file answers them in later runs.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class ExactSolver implements MoveSearch
+{
+    /**
+     * No value can reach this
+     */
+    private static final int INFINITY = 100;
+    /**
+     * Positions this close to the end are cheaper to search than to look up, so they aren't cached
+     */
+    private static final int UNCACHED_PLIES = 2;
+    /**
+     * The bounds of solved positions
+     */
+    private final SolverCache cache;
+    /**
+     * Moves at each ply, reused between nodes
+     */
+    private final int[][] moveBuffers;
+    /**
+     * Ordering keys at each ply
+     */
+    private final int[][] orderBuffers;
+    /**
+     * Positions visited by the last solve
+     */
+    private long nodes;
+    /**
+     * The best move found at the root by the last solve, -1 if the root's value came from the cache
+     */
+    private int rootMove;
+
+    /**
+     * Creates a solver with a heap cache of about a million entries
+     */
+    public ExactSolver()
+    {
+        this(new SolverCache(1 << 20));
+    }
+    /**
+     * Creates a solver using a cache, which may be backed by a file
+     */
+    public ExactSolver(SolverCache cache)
+    {
+        this.cache = cache;
+        int maxMoves = GamePosition.MAX_HAND_SLOTS * BitBoard.MAX_CELLS;
+        this.moveBuffers = new int[BitBoard.MAX_CELLS + 1][maxMoves];
+        this.orderBuffers = new int[BitBoard.MAX_CELLS + 1][maxMoves];
+    }
+    /**
+     * Solves the current position of a model
+     */
+    public SearchResult solve(TripleTriadModel model){
+        return solve(GamePosition.fromModel(model));
+    }
+    /**
+     * Solves a position without changing it
+     * @return the best move and the exact score for the player to move
+     */
+    public SearchResult solve(GamePosition position){
+        long start = System.nanoTime();
+        this.nodes = 0;
+        this.rootMove = -1;
+        int value = value(position, -INFINITY, INFINITY, 0);
+        //Positions near the end aren't cached, so the root's move is kept while searching it
+        int bestMove = this.rootMove;
+        int offset = bestMove < 0 ? this.cache.find(position.getHash()) : -1;
+        if(offset >= 0){
+            bestMove = this.cache.getBestMove(offset);
+        }
+        return new SearchResult(bestMove, value, position.getRemainingPlies(), this.nodes,
+            System.nanoTime() - start);
+    }
+    /**
+     * Solves a position, the time limit is ignored since solving is exact
+     */
+    public SearchResult search(GamePosition position, long timeLimitMillis){
+        return solve(position);
+    }
+    /**
+     * The exact value of a position if it lies within the window, otherwise a bound past the window
+     */
+    private int value(GamePosition position, int alpha, int beta, int ply){
+        this.nodes++;
+        if(position.isFinished()){
+            return position.evaluate();
+        }
+        boolean cached = position.getRemainingPlies() > UNCACHED_PLIES;
+        long key = cached ? position.getHash() : 0L;
+        int offset = cached ? this.cache.find(key) : -1;
+        int cachedMove = -1;
+        if(offset >= 0){
+            int lower = this.cache.getLower(offset);
+            int upper = this.cache.getUpper(offset);
+            if(lower == upper || lower >= beta){
+                return lower;
+            }
+            if(upper <= alpha){
+                return upper;
+            }
+            alpha = Math.max(alpha, lower);
+            beta = Math.min(beta, upper);
+            cachedMove = this.cache.getBestMove(offset);
+        }
+        int[] moves = this.moveBuffers[ply];
+        int count = AlphaBetaSearch.orderMoves(position, moves, this.orderBuffers[ply], cachedMove);
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = -1;
+        for(int i = 0; i < count; i++){
+            position.makeMove(moves[i]);
+            int score = -value(position, -beta, -Math.max(alpha, best), ply + 1);
+            position.unmakeMove();
+            if(score > best){
+                best = score;
+                bestMove = moves[i];
+                if(ply == 0){
+                    this.rootMove = bestMove;
+                }
+                if(best >= beta){
+                    break;
+                }
+            }
+        }
+        if(!cached){
+            return best;
+        }
+        if(best <= originalAlpha){
+            this.cache.store(key, -INFINITY, best, -1);
+        } else if(best >= beta){
+            this.cache.store(key, best, INFINITY, bestMove);
+        } else {
+            this.cache.store(key, best, best, bestMove);
+        }
+        return best;
+    }
+    /**
+     * Getter for the positions visited by the last solve
+     */
+    public long getNodes(){
+        return this.nodes;
+    }
+    /**
+     * Solves the games dealt from seeds 0, 1, 2 and so on and prints how long each took.
+     * Pass a file name to keep the cache in a memory-mapped file between runs,
+     * and the amount of deals as the second argument.
+     */
+    public static void main(String[] args) throws IOException{
+        SolverCache cache = args.length > 0 ? SolverCache.open(args[0], 1 << 22) : new SolverCache(1 << 22);
+        int deals = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        ExactSolver solver = new ExactSolver(cache);
+        for(int i = 0; i < deals; i++){
+            TripleTriadModel model = new TripleTriadModel(i);
+            SearchResult result = solver.solve(model);
+            System.out.println(model.getActivePlayer().getName() + " to move: " + result + " in "
+                + result.getElapsedNanos() / 1000000 + " ms");
+        }
+        cache.close();
+    }
+}
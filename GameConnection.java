@@ -0,0 +1,260 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+/**
+ * Serves one client of the GameServer on its own thread. Reads one command per line and answers with lines:
+ * <ul>
+ * <li>"NEW [seed]" creates a session and takes its first seat, answered with "SESSION id SEAT seat SEED seed"</li>
+ * <li>"JOIN id" takes the free seat of a session, answered the same way. Once both seats are taken
+ * both players get "READY turn" with the owner id of the player to move first</li>
+ * <li>"MOVE handIndex boardIndex" plays for the client's seat, both seats get "PLAYED seat handIndex boardIndex flips"
+ * where flips are the captured cells separated by commas or "-", then "GAMEOVER winner" once the board is full</li>
+ * <li>"STATE" answers with the session's state from GameSession.describe</li>
+ * <li>"QUIT" leaves the session and closes the connection</li>
+ * </ul>
+ * Anything that can't be done is answered with "ERROR reason", and "LEFT seat" tells a player their opponent left.
+ * Lines are queued and written to the socket by a second thread, since sessions send lines while holding their
+ * lock and a client slow to read them mustn't hold up its opponent. A client that falls MAX_QUEUED_LINES behind
+ * is disconnected.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class GameConnection implements Runnable, SessionSeat
+{
+    /**
+     * The most lines waiting to be written before the client is disconnected
+     */
+    public static final int MAX_QUEUED_LINES = 1024;
+    /**
+     * The stack size of a writer thread in bytes
+     */
+    private static final long WRITER_STACK_BYTES = 128 * 1024;
+    /**
+     * Queued after the last line to stop the writer thread, compared by identity
+     */
+    private static final String END_OF_LINES = new String("END");
+    /**
+     * The sessions of the server
+     */
+    private final SessionRegistry registry;
+    /**
+     * The client's socket
+     */
+    private final Socket socket;
+    /**
+     * Writes lines to the client, only used by the writer thread
+     */
+    private final Writer writer;
+    /**
+     * The lines waiting to be written. Lines come from this connection's thread and from the opponent's.
+     */
+    private final BlockingQueue<String> outbound;
+    /**
+     * Set once lines are no longer written, later lines are dropped
+     */
+    private volatile boolean closed;
+    /**
+     * The session the client is seated at, null before NEW or JOIN
+     */
+    private GameSession session;
+    /**
+     * The owner id of the client's seat
+     */
+    private int seat;
+
+    /**
+     * Creates the connection of an accepted socket
+     */
+    public GameConnection(SessionRegistry registry, Socket socket) throws IOException
+    {
+        this.registry = registry;
+        this.socket = socket;
+        this.writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+        this.outbound = new LinkedBlockingQueue<String>(MAX_QUEUED_LINES);
+        this.closed = false;
+        this.session = null;
+        this.seat = -1;
+    }
+    /**
+     * Reads and answers commands until the client quits or disconnects, then leaves the session.
+     * The writer thread is started first and closes the socket once every queued line is written.
+     */
+    public void run(){
+        Thread writerThread = new Thread(null, () -> writeLines(), Thread.currentThread().getName() + "-writer",
+            WRITER_STACK_BYTES);
+        writerThread.setDaemon(true);
+        writerThread.start();
+        try {
+            BufferedReader reader = new BufferedReader(
+                new InputStreamReader(this.socket.getInputStream(), StandardCharsets.US_ASCII));
+            String line;
+            while((line = reader.readLine()) != null){
+                if(!handleCommand(line.trim().split("\\s+"))){
+                    break;
+                }
+            }
+        } catch(IOException e){
+            //The client disconnected, its seat is freed below
+        } finally {
+            leaveSession();
+            //A full queue means the client is too far behind to wait for
+            if(!this.outbound.offer(END_OF_LINES)){
+                close();
+            }
+        }
+    }
+    /**
+     * Writes queued lines until the connection ends, flushing whenever the queue runs empty, then closes the socket
+     */
+    private void writeLines(){
+        try {
+            String line;
+            while((line = this.outbound.take()) != END_OF_LINES){
+                this.writer.write(line);
+                this.writer.write('\n');
+                if(this.outbound.isEmpty()){
+                    this.writer.flush();
+                }
+            }
+            this.writer.flush();
+        } catch(IOException | InterruptedException e){
+            //The client disconnected, the reading thread notices the closed socket
+        } finally {
+            close();
+        }
+    }
+    /**
+     * Drops the queued lines and closes the socket, which ends the reading thread and the writer thread
+     */
+    private void close(){
+        this.closed = true;
+        this.outbound.clear();
+        this.outbound.offer(END_OF_LINES);
+        try {
+            this.socket.close();
+        } catch(IOException e){
+            //Already closed
+        }
+    }
+    /**
+     * Answers one command
+     * @return false when the client quit
+     */
+    private boolean handleCommand(String[] command){
+        try {
+            switch(command[0].toUpperCase()){
+                case "NEW":
+                    long seed = command.length > 1 ? Long.parseLong(command[1]) : System.nanoTime();
+                    sit(this.registry.createSession(seed));
+                    break;
+                case "JOIN":
+                    GameSession joined = this.registry.getSession(Integer.parseInt(command[1]));
+                    if(joined == null){
+                        send("ERROR no session " + command[1]);
+                    } else {
+                        sit(joined);
+                    }
+                    break;
+                case "MOVE":
+                    if(this.session == null){
+                        send("ERROR not in a session");
+                        break;
+                    }
+                    int result = this.session.play(this.seat, Integer.parseInt(command[1]),
+                        Integer.parseInt(command[2]));
+                    if(result != GameSession.MOVE_PLAYED){
+                        send("ERROR " + GameSession.reasonOf(result));
+                    }
+                    break;
+                case "STATE":
+                    send(this.session == null ? "ERROR not in a session" : this.session.describe());
+                    break;
+                case "QUIT":
+                    return false;
+                default:
+                    send("ERROR unknown command " + command[0]);
+            }
+        } catch(NumberFormatException | ArrayIndexOutOfBoundsException e){
+            send("ERROR bad arguments for " + command[0]);
+        }
+        return true;
+    }
+    /**
+     * Leaves the current session and takes a seat at another
+     */
+    private void sit(GameSession newSession){
+        leaveSession();
+        int newSeat = newSession.join(this);
+        if(newSeat < 0){
+            send("ERROR session " + newSession.getId() + " is full");
+            return;
+        }
+        this.session = newSession;
+        this.seat = newSeat;
+    }
+    /**
+     * Frees the client's seat, closing the session on the server once nobody is left
+     */
+    private void leaveSession(){
+        if(this.session != null){
+            if(this.session.leave(this.seat)){
+                this.registry.removeSession(this.session);
+            }
+            this.session = null;
+            this.seat = -1;
+        }
+    }
+    /**
+     * Answers NEW and JOIN with "SESSION id SEAT seat SEED seed"
+     */
+    public void seated(int sessionId, int seat, long seed){
+        send("SESSION " + sessionId + " SEAT " + seat + " SEED " + seed);
+    }
+    /**
+     * Sends "READY turn"
+     */
+    public void ready(int turn){
+        send("READY " + turn);
+    }
+    /**
+     * Sends "PLAYED seat handIndex boardIndex flips"
+     */
+    public void played(int seat, int handIndex, int boardIndex, int[] flips, int flipCount){
+        StringBuilder played = new StringBuilder("PLAYED ").append(seat).append(' ').append(handIndex)
+            .append(' ').append(boardIndex).append(' ');
+        for(int i = 0; i < flipCount; i++){
+            played.append(i == 0 ? "" : ",").append(flips[i]);
+        }
+        if(flipCount == 0){
+            played.append('-');
+        }
+        send(played.toString());
+    }
+    /**
+     * Sends "GAMEOVER winner"
+     */
+    public void gameOver(int winner){
+        send("GAMEOVER " + winner);
+    }
+    /**
+     * Sends "LEFT seat"
+     */
+    public void left(int seat){
+        send("LEFT " + seat);
+    }
+    /**
+     * Queues a line for the client without waiting for it to be written. A client too far behind is disconnected
+     * and lines sent after the connection is closed are dropped.
+     */
+    public void send(String line){
+        if(!this.closed && !this.outbound.offer(line)){
+            close();
+        }
+    }
+}
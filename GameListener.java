@@ -2,11 +2,13 @@ import java.awt.event.*;
 import java.awt.*;
 /**
  * Listens to mouse clicks and passes the point to the
- * Controller class
+ * Controller class. Also listens for Ctrl+Z and Ctrl+Y
+ * to undo and redo plays. Each input is submitted as a command
+ * for the controller's game logic thread, never handled on the event dispatch thread.
  * @author Keagen Thomson
  * @version (a version number or a date)
  */
-public class GameListener extends MouseAdapter
+public class GameListener extends MouseAdapter implements KeyListener
 {
     TripleTriadController master;
     /**
@@ -18,7 +20,22 @@ public class GameListener extends MouseAdapter
     }
     public void mouseClicked(MouseEvent me) {
         Point p  = me.getPoint();
-        master.handleMouseClick(p);
+        master.submit(() -> master.handleMouseClick(p));
+    }
+    /**
+     * Ctrl+Z undoes the last play and Ctrl+Y redoes it
+     */
+    public void keyPressed(KeyEvent ke) {
+        if(ke.isControlDown() && ke.getKeyCode() == KeyEvent.VK_Z){
+            master.submit(() -> master.handleUndo());
+        }
+        if(ke.isControlDown() && ke.getKeyCode() == KeyEvent.VK_Y){
+            master.submit(() -> master.handleRedo());
+        }
+    }
+    public void keyReleased(KeyEvent ke) {
+    }
+    public void keyTyped(KeyEvent ke) {
     }
 
     
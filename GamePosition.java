@@ -0,0 +1,274 @@
+import java.util.ArrayList;
+/**
+ * A full game position for analysis: a BitBoard, the cards left in both hands
+ * and whose turn it is. Moves are made and unmade in place so a search can walk
+ * the game tree on one position without copying it.
+ * A move is packed into one int as (hand slot << 8) | board cell, where the hand slot
+ * is the index the card had in its player's hand when the position was built.
+ * Owners use the Owner ids, Player 1 is 0 and Player 2 is 1.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class GamePosition
+{
+    /**
+     * The most cards a hand can hold in a position
+     */
+    public static final int MAX_HAND_SLOTS = 16;
+    /**
+     * The board cards are played on
+     */
+    private final BitBoard board;
+    /**
+     * The packed ranks of every hand card, indexed by owner * MAX_HAND_SLOTS + slot
+     */
+    private final int[] handRanks;
+    /**
+     * For each owner, bit i is set if hand slot i still holds a card
+     */
+    private final int[] handMasks;
+    /**
+     * The owner id of the player who plays next
+     */
+    private int sideToMove;
+    /**
+     * The Zobrist keys of every card in both hands XORed together
+     */
+    private long handHash;
+    /**
+     * The moves made so far, used to unmake them
+     */
+    private final int[] moveHistory;
+    /**
+     * The cells captured by each move made so far
+     */
+    private final long[] flipHistory;
+    /**
+     * The amount of moves made since the position was built
+     */
+    private int ply;
+
+    /**
+     * Creates a position on an empty board with empty hands, Player 1 to move
+     */
+    public GamePosition(int height, int width, Topology topology)
+    {
+        this(new BitBoard(height, width, topology));
+    }
+    /**
+     * Creates a position on a board that may already hold cards, with empty hands and Player 1 to move.
+     * The position takes over the board, it should not be changed elsewhere afterwards.
+     */
+    public GamePosition(BitBoard board)
+    {
+        this.board = board;
+        this.handRanks = new int[2 * MAX_HAND_SLOTS];
+        this.handMasks = new int[2];
+        this.sideToMove = Owner.PLAYER_ONE;
+        this.handHash = 0L;
+        this.moveHistory = new int[this.board.getCellCount()];
+        this.flipHistory = new long[this.board.getCellCount()];
+        this.ply = 0;
+    }
+    /**
+     * Copy constructor. The copy starts with an empty move history so it cannot unmake
+     * moves made before it was copied.
+     */
+    public GamePosition(GamePosition that)
+    {
+        this.board = that.board.copy();
+        this.handRanks = that.handRanks.clone();
+        this.handMasks = that.handMasks.clone();
+        this.sideToMove = that.sideToMove;
+        this.handHash = that.handHash;
+        this.moveHistory = new int[this.board.getCellCount()];
+        this.flipHistory = new long[this.board.getCellCount()];
+        this.ply = 0;
+    }
+    /**
+     * Builds a position from the board, hands and active player of a model.
+     * The hand slot of a card is its index in its player's hand.
+     */
+    public static GamePosition fromModel(TripleTriadModel model){
+        GamePosition position = new GamePosition(BitBoard.fromBoard(model.getBoard()));
+        for(Player player: model.getPlayers()){
+            int owner = player.getOwner();
+            ArrayList<Card> cards = player.getHand().getCards();
+            for(int slot = 0; slot < cards.size(); slot++){
+                position.setHandCard(owner, slot, cards.get(slot).getPackedRanks());
+            }
+        }
+        position.sideToMove = model.getActivePlayer().getOwner();
+        return position;
+    }
+    /**
+     * Puts a card in a hand slot
+     * @param ranks the packed ranks of the card
+     */
+    public void setHandCard(int owner, int slot, int ranks){
+        int handIndex = owner * MAX_HAND_SLOTS + slot;
+        if((this.handMasks[owner] & (1 << slot)) != 0){
+            this.handHash ^= Zobrist.handCardKey(owner, slot, this.handRanks[handIndex]);
+        }
+        this.handRanks[handIndex] = ranks;
+        this.handMasks[owner] |= 1 << slot;
+        this.handHash ^= Zobrist.handCardKey(owner, slot, ranks);
+    }
+    /**
+     * Setter for the player who plays next
+     */
+    public void setSideToMove(int owner){
+        this.sideToMove = owner;
+    }
+    /**
+     * Getter for the owner id of the player who plays next
+     */
+    public int getSideToMove(){
+        return this.sideToMove;
+    }
+    /**
+     * The Zobrist hash of the whole position: the cards and owners on the board,
+     * the cards in both hands and the player to move
+     */
+    public long getHash(){
+        long hash = this.board.getHash() ^ this.handHash;
+        return this.sideToMove == Owner.PLAYER_TWO ? hash ^ Zobrist.sideToMoveKey() : hash;
+    }
+    /**
+     * Getter for the board. Changing it directly invalidates the move history.
+     */
+    public BitBoard getBoard(){
+        return this.board;
+    }
+    /**
+     * Getter for the hand slots of a player that still hold a card
+     */
+    public int getHandMask(int owner){
+        return this.handMasks[owner];
+    }
+    /**
+     * Getter for the packed ranks of the card in a player's hand slot
+     */
+    public int getHandRanks(int owner, int slot){
+        return this.handRanks[owner * MAX_HAND_SLOTS + slot];
+    }
+    /**
+     * Packs a hand slot and board cell into a move
+     */
+    public static int encodeMove(int slot, int cell){
+        return (slot << 8) | cell;
+    }
+    /**
+     * Gets the hand slot of a move
+     */
+    public static int moveSlot(int move){
+        return move >>> 8;
+    }
+    /**
+     * Gets the board cell of a move
+     */
+    public static int moveCell(int move){
+        return move & 0xFF;
+    }
+    /**
+     * Writes every legal move of the player to move into an array.
+     * Hand cards with the same ranks lead to the same positions so only the first is used.
+     * @param moves an array with room for hand size * empty cells moves
+     * @return the amount of moves written
+     */
+    public int generateMoves(int[] moves){
+        int count = 0;
+        int side = this.sideToMove;
+        int base = side * MAX_HAND_SLOTS;
+        int mask = this.handMasks[side];
+        int seen = 0;
+        for(int slots = mask; slots != 0; slots &= slots - 1){
+            int slot = Integer.numberOfTrailingZeros(slots);
+            int ranks = this.handRanks[base + slot];
+            if(isDuplicateCard(base, seen, ranks)){
+                continue;
+            }
+            seen |= 1 << slot;
+            long empty = ~this.board.getOccupied();
+            for(int cell = 0; cell < this.board.getCellCount(); cell++){
+                if((empty & (1L << cell)) != 0){
+                    moves[count++] = encodeMove(slot, cell);
+                }
+            }
+        }
+        return count;
+    }
+    /**
+     * Checks if an earlier hand slot already generated moves for a card with the same ranks
+     */
+    private boolean isDuplicateCard(int base, int seen, int ranks){
+        for(int slots = seen; slots != 0; slots &= slots - 1){
+            if(this.handRanks[base + Integer.numberOfTrailingZeros(slots)] == ranks){
+                return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * Counts how many cards a move would capture, used to search the strongest moves first
+     */
+    public int captureCount(int move){
+        int ranks = this.handRanks[this.sideToMove * MAX_HAND_SLOTS + moveSlot(move)];
+        return Long.bitCount(this.board.captureMask(moveCell(move), ranks, this.sideToMove));
+    }
+    /**
+     * Plays a card from the hand of the player to move then passes the turn
+     * @return the cells captured by the move
+     */
+    public long makeMove(int move){
+        int side = this.sideToMove;
+        int slot = moveSlot(move);
+        int handIndex = side * MAX_HAND_SLOTS + slot;
+        long flips = this.board.playAt(moveCell(move), this.handRanks[handIndex], side, handIndex);
+        this.handMasks[side] &= ~(1 << slot);
+        this.handHash ^= Zobrist.handCardKey(side, slot, this.handRanks[handIndex]);
+        this.moveHistory[this.ply] = move;
+        this.flipHistory[this.ply] = flips;
+        this.ply++;
+        this.sideToMove = side ^ 1;
+        return flips;
+    }
+    /**
+     * Takes back the last move made, returning the card to its hand slot
+     */
+    public void unmakeMove(){
+        this.ply--;
+        int move = this.moveHistory[this.ply];
+        this.sideToMove ^= 1;
+        this.board.undoAt(moveCell(move), this.flipHistory[this.ply]);
+        int slot = moveSlot(move);
+        this.handMasks[this.sideToMove] |= 1 << slot;
+        this.handHash ^= Zobrist.handCardKey(this.sideToMove, slot,
+            this.handRanks[this.sideToMove * MAX_HAND_SLOTS + slot]);
+    }
+    /**
+     * A player's score the same way TripleTriadModel.updateScores counts it,
+     * cards owned on the board plus cards left in hand
+     */
+    public int score(int owner){
+        return this.board.countOwned(owner) + Integer.bitCount(this.handMasks[owner]);
+    }
+    /**
+     * The score difference from the point of view of the player to move
+     */
+    public int evaluate(){
+        return score(this.sideToMove) - score(this.sideToMove ^ 1);
+    }
+    /**
+     * The game is finished when the board is full or the player to move has no cards left
+     */
+    public boolean isFinished(){
+        return this.board.isFull() || this.handMasks[this.sideToMove] == 0;
+    }
+    /**
+     * The most moves left before the game finishes
+     */
+    public int getRemainingPlies(){
+        return this.board.getCellCount() - this.board.countPlayed();
+    }
+}
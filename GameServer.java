@@ -0,0 +1,119 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicInteger;
+/**
+ * Hosts many TripleTriadModel matches at once for clients connecting over TCP on localhost.
+ * Every connection is served by its own thread running a GameConnection, with a second thread writing its
+ * replies, and every match is a GameSession that serializes the moves of its two players. Connection threads are created with a small stack
+ * since they only parse a line and call into a session, so thousands of clients fit in a little memory.
+ * The protocol is described in GameConnection, and clients can be tried by hand with a tool like netcat.
+ * Run main with a port to serve, or with "load" to measure a server full of matches with the LoadTestClient.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class GameServer
+{
+    /**
+     * The port served when none is given
+     */
+    public static final int DEFAULT_PORT = 7777;
+    /**
+     * The stack size of a connection thread in bytes
+     */
+    private static final long CONNECTION_STACK_BYTES = 256 * 1024;
+    /**
+     * The sessions being played
+     */
+    private final SessionRegistry registry;
+    /**
+     * The socket connections are accepted on
+     */
+    private final ServerSocket serverSocket;
+    /**
+     * The amount of connection threads created, used to name them
+     */
+    private final AtomicInteger connectionCount;
+
+    /**
+     * Opens a server on a localhost port. Port 0 picks a free port.
+     */
+    public GameServer(int port) throws IOException
+    {
+        this(port, new SessionRegistry());
+    }
+    /**
+     * Opens a server on a localhost port hosting the sessions of a registry
+     */
+    public GameServer(int port, SessionRegistry registry) throws IOException
+    {
+        this.registry = registry;
+        this.connectionCount = new AtomicInteger();
+        this.serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+    }
+    /**
+     * Getter for the port the server accepts connections on
+     */
+    public int getPort(){
+        return this.serverSocket.getLocalPort();
+    }
+    /**
+     * Getter for the sessions being played
+     */
+    public SessionRegistry getRegistry(){
+        return this.registry;
+    }
+    /**
+     * Starts accepting connections on a background thread
+     */
+    public void start(){
+        Thread acceptor = new Thread(() -> acceptConnections(), "game-server-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+    /**
+     * Accepts connections until the server is closed, starting a thread for each
+     */
+    private void acceptConnections(){
+        while(!this.serverSocket.isClosed()){
+            try {
+                Socket socket = this.serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Thread thread = new Thread(null, new GameConnection(this.registry, socket),
+                    "game-connection-" + this.connectionCount.incrementAndGet(), CONNECTION_STACK_BYTES);
+                thread.setDaemon(true);
+                thread.start();
+            } catch(IOException e){
+                //Either the server was closed, which ends the loop, or one accept failed
+            }
+        }
+    }
+    /**
+     * Stops accepting connections. Connections already open keep being served until they close.
+     */
+    public void close() throws IOException{
+        this.serverSocket.close();
+    }
+    /**
+     * Serves on a port until killed, recording finished matches when a replay log is given:
+     * java GameServer [port] [replay log]
+     * or runs a load test against a local server: java GameServer load [matches] [seed]
+     */
+    public static void main(String[] args) throws Exception{
+        if(args.length > 0 && args[0].equals("load")){
+            int matches = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+            long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+            GameServer server = new GameServer(0);
+            server.start();
+            System.out.println(LoadTestClient.run(server.getPort(), matches, seed));
+            server.close();
+            return;
+        }
+        SessionRegistry registry = SessionRegistry.recordingTo(args.length > 1 ? args[1] : null);
+        GameServer server = new GameServer(args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT, registry);
+        server.start();
+        System.out.println("Serving Triple Triad on localhost:" + server.getPort());
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,262 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+/**
+ * One match hosted by the GameServer. Wraps a TripleTriadModel and the SessionSeats of the connections playing it.
+ * The model's fields are public and unsynchronized, so nothing outside the session touches it and every
+ * method here is synchronized on the session. Two players in the same match are serialized while
+ * different matches never wait on each other.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class GameSession
+{
+    /**
+     * Returned by play when the move was made
+     */
+    public static final int MOVE_PLAYED = 0;
+    /**
+     * Returned by play when a seat is still empty
+     */
+    public static final int WAITING_FOR_OPPONENT = 1;
+    /**
+     * Returned by play when the board is full
+     */
+    public static final int GAME_OVER = 2;
+    /**
+     * Returned by play when it is the other player's turn
+     */
+    public static final int NOT_YOUR_TURN = 3;
+    /**
+     * Returned by play when the board index is off the board or already holds a card
+     */
+    public static final int BAD_BOARD_INDEX = 4;
+    /**
+     * Returned by play when the hand index has no card
+     */
+    public static final int BAD_HAND_INDEX = 5;
+    /**
+     * The reason for every result of play, indexed by the result
+     */
+    private static final String[] RESULT_REASONS = {"played", "waiting for an opponent", "the game is over",
+        "not your turn", "that board index can't be played on", "that hand index has no card"};
+    /**
+     * The id clients use to join the session
+     */
+    private final int id;
+    /**
+     * The match being played
+     */
+    private final TripleTriadModel model;
+    /**
+     * The connection seated as each player, indexed by owner id. null while a seat is empty.
+     */
+    private final SessionSeat[] seats;
+    /**
+     * Receives the cells captured by each play
+     */
+    private final int[] flips;
+    /**
+     * Where the match is recorded once finished, null to not record it
+     */
+    private final ReplayLog replayLog;
+
+    /**
+     * Creates a session dealt from a seed with both seats empty
+     */
+    public GameSession(int id, long seed)
+    {
+        this(id, seed, null);
+    }
+    /**
+     * Creates a session dealt from a seed with both seats empty, recorded to a replay log once finished
+     * @param replayLog the log, null to not record the match
+     */
+    public GameSession(int id, long seed, ReplayLog replayLog)
+    {
+        this.id = id;
+        this.replayLog = replayLog;
+        this.model = new TripleTriadModel(seed);
+        this.seats = new SessionSeat[Owner.PLAYER_COUNT];
+        this.flips = new int[this.model.getBoard().getAdjacencyTable().getNeighbours().length];
+    }
+    /**
+     * Getter for the session id
+     */
+    public int getId(){
+        return this.id;
+    }
+    /**
+     * Getter for the seed the match was dealt from
+     */
+    public long getSeed(){
+        return this.model.getSeed();
+    }
+    /**
+     * Seats a connection in the first empty seat and tells it where it sat.
+     * Once every seat is taken every player is told the match is ready.
+     * @return the owner id of the seat taken, -1 if the session is full
+     */
+    public synchronized int join(SessionSeat connection){
+        for(int seat = 0; seat < this.seats.length; seat++){
+            if(this.seats[seat] == null){
+                this.seats[seat] = connection;
+                connection.seated(this.id, seat, getSeed());
+                if(isFull()){
+                    int turn = this.model.getActivePlayer().getOwner();
+                    for(SessionSeat seated: this.seats){
+                        seated.ready(turn);
+                    }
+                }
+                return seat;
+            }
+        }
+        return -1;
+    }
+    /**
+     * Frees a connection's seat and tells the other player
+     * @return true if the session has no one seated anymore
+     */
+    public synchronized boolean leave(int seat){
+        this.seats[seat] = null;
+        boolean empty = true;
+        for(SessionSeat connection: this.seats){
+            if(connection != null){
+                connection.left(seat);
+                empty = false;
+            }
+        }
+        return empty;
+    }
+    /**
+     * Plays a move for a seat and tells every seated connection the move and the cells it captured,
+     * then the winner if the board is full
+     * @return MOVE_PLAYED if the move was played, otherwise the constant saying why it was refused
+     */
+    public synchronized int play(int seat, int handIndex, int boardIndex){
+        if(!isFull()){
+            return WAITING_FOR_OPPONENT;
+        }
+        if(this.model.getGameFinished()){
+            return GAME_OVER;
+        }
+        if(this.model.getActivePlayer().getOwner() != seat){
+            return NOT_YOUR_TURN;
+        }
+        Board board = this.model.getBoard();
+        if(boardIndex < 0 || boardIndex >= board.getPlayedCards().length || !board.attemptPlayCardAt(boardIndex)){
+            return BAD_BOARD_INDEX;
+        }
+        if(handIndex < 0 || handIndex >= this.model.getActivePlayer().getHand().getHandSize()){
+            return BAD_HAND_INDEX;
+        }
+        this.model.playMove(handIndex, boardIndex);
+        this.model.toggleActivePlayer();
+        this.model.updateGameState();
+        int flipCount = board.getLastPlayFlips(this.flips);
+        for(SessionSeat connection: this.seats){
+            connection.played(seat, handIndex, boardIndex, this.flips, flipCount);
+        }
+        if(this.model.getGameFinished()){
+            int winner = this.model.getCurrentWinner();
+            for(SessionSeat connection: this.seats){
+                connection.gameOver(winner);
+            }
+            record();
+        }
+        return MOVE_PLAYED;
+    }
+    /**
+     * Appends the finished match to the replay log if there is one.
+     * A log that can't be written doesn't stop the match from ending.
+     */
+    private void record(){
+        if(this.replayLog != null){
+            try {
+                this.replayLog.append(this.model);
+            } catch(IOException e){
+                System.out.println("Session " + this.id + " couldn't be recorded: " + e.getMessage());
+            }
+        }
+    }
+    /**
+     * Describes a result of play
+     */
+    public static String reasonOf(int result){
+        return RESULT_REASONS[result];
+    }
+    /**
+     * Describes the match as "STATE turn board hand0 hand1 score0 score1".
+     * turn is the owner id of the player to move or -1 when the game is over.
+     * Each board cell is "." when empty or its owner id followed by the card's ranks as 4 hex digits,
+     * top rank last. Hands are lists of ranks in the same hex form. Lists are separated by commas, "-" when empty.
+     */
+    public synchronized String describe(){
+        StringBuilder state = new StringBuilder("STATE ");
+        state.append(this.model.getGameFinished() ? -1 : this.model.getActivePlayer().getOwner()).append(' ');
+        Node[] nodes = this.model.getBoard().getPlayedCards();
+        for(int i = 0; i < nodes.length; i++){
+            state.append(i == 0 ? "" : ",");
+            if(nodes[i].getHasCard()){
+                Card card = nodes[i].getCard();
+                state.append(card.getOwner()).append(hexRanks(card));
+            } else {
+                state.append('.');
+            }
+        }
+        for(Player player: this.model.getPlayers()){
+            state.append(' ');
+            Hand hand = player.getHand();
+            for(int i = 0; i < hand.getHandSize(); i++){
+                state.append(i == 0 ? "" : ",").append(hexRanks(hand.showCard(i)));
+            }
+            if(hand.getHandSize() == 0){
+                state.append('-');
+            }
+        }
+        int[] scores = this.model.getScores();
+        state.append(' ').append(scores[0]).append(' ').append(scores[1]);
+        return state.toString();
+    }
+    /**
+     * Writes the match as a MoveProtocol STATE_REPLY frame holding the same things as describe:
+     * turn(1, -1 when the game is over), then every cell as owner(1, -1 when empty) and ranks(2),
+     * then every hand as a count(1) followed by each card's ranks(2), then both scores(1)
+     */
+    public synchronized void writeState(ByteBuffer out){
+        int start = MoveProtocol.beginFrame(out, MoveProtocol.STATE_REPLY);
+        out.put((byte) (this.model.getGameFinished() ? -1 : this.model.getActivePlayer().getOwner()));
+        for(Node node: this.model.getBoard().getPlayedCards()){
+            out.put((byte) (node.getHasCard() ? node.getCard().getOwner() : -1));
+            out.putShort((short) (node.getHasCard() ? node.getCard().getPackedRanks() : 0));
+        }
+        for(Player player: this.model.getPlayers()){
+            Hand hand = player.getHand();
+            out.put((byte) hand.getHandSize());
+            for(int i = 0; i < hand.getHandSize(); i++){
+                out.putShort((short) hand.showCard(i).getPackedRanks());
+            }
+        }
+        int[] scores = this.model.getScores();
+        out.put((byte) scores[0]);
+        out.put((byte) scores[1]);
+        MoveProtocol.endFrame(out, start);
+    }
+    /**
+     * Writes a card's packed ranks as 4 hex digits
+     */
+    private static String hexRanks(Card card){
+        String hex = Integer.toHexString(card.getPackedRanks());
+        return "0000".substring(hex.length()) + hex;
+    }
+    /**
+     * Checks if every seat is taken
+     */
+    private boolean isFull(){
+        for(SessionSeat connection: this.seats){
+            if(connection == null){
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,182 @@
+import java.util.BitSet;
+/**
+ * An immutable copy of everything the view draws from a TripleTriadModel: the card on every cell and its owner,
+ * the cards in every hand, the scores and whose turn it is or who won. The game logic thread publishes a new
+ * snapshot after each change and the view draws whichever snapshot is newest, so drawing never reads or locks
+ * the model while it is being played. A snapshot copies only the cells changed since the one before it and
+ * shares nothing mutable with it.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public final class GameSnapshot
+{
+    /**
+     * The width of the board in cells
+     */
+    private final int boardWidth;
+    /**
+     * The height of the board in cells
+     */
+    private final int boardHeight;
+    /**
+     * The card on every cell by board index, null for an empty cell
+     */
+    private final CardDefinition[] cellDefinitions;
+    /**
+     * The owner id of the card on every cell by board index
+     */
+    private final byte[] cellOwners;
+    /**
+     * The cards in every hand by owner id then slot
+     */
+    private final CardDefinition[][] handDefinitions;
+    /**
+     * The view column every hand is drawn in by owner id
+     */
+    private final int[] handColumns;
+    /**
+     * The scores by owner id
+     */
+    private final int[] scores;
+    /**
+     * The owner id of the player to move
+     */
+    private final int activeOwner;
+    /**
+     * If the board is full
+     */
+    private final boolean gameFinished;
+    /**
+     * The owner id of the player winning, Owner.NEUTRAL for a draw
+     */
+    private final int currentWinner;
+
+    /**
+     * Copies a whole model
+     */
+    public GameSnapshot(TripleTriadModel model)
+    {
+        this(model, null, null);
+    }
+    /**
+     * Copies a model, taking the cells from the snapshot before except the changed ones
+     * @param previous the snapshot of the same model before it changed, null to copy every cell
+     * @param changedCells the cells changed since previous, ignored without one
+     */
+    public GameSnapshot(TripleTriadModel model, GameSnapshot previous, BitSet changedCells)
+    {
+        Board board = model.getBoard();
+        Player[] players = model.getPlayers();
+        this.boardWidth = board.getWidth();
+        this.boardHeight = board.getHeight();
+        int cells = board.getPlayedCards().length;
+        if(previous == null){
+            this.cellDefinitions = new CardDefinition[cells];
+            this.cellOwners = new byte[cells];
+            for(int i = 0; i < cells; i++){
+                copyCell(board, i);
+            }
+        } else {
+            this.cellDefinitions = previous.cellDefinitions.clone();
+            this.cellOwners = previous.cellOwners.clone();
+            for(int i = changedCells.nextSetBit(0); i >= 0; i = changedCells.nextSetBit(i + 1)){
+                copyCell(board, i);
+            }
+        }
+        this.handDefinitions = new CardDefinition[players.length][];
+        this.handColumns = new int[players.length];
+        for(Player player: players){
+            Hand hand = player.getHand();
+            CardDefinition[] definitions = new CardDefinition[hand.getHandSize()];
+            for(int slot = 0; slot < definitions.length; slot++){
+                definitions[slot] = hand.showCard(slot).getDefinition();
+            }
+            this.handDefinitions[player.getOwner()] = definitions;
+            this.handColumns[player.getOwner()] = player.getBoardLocation();
+        }
+        this.scores = model.getScores().clone();
+        this.activeOwner = model.getActivePlayer().getOwner();
+        this.gameFinished = model.getGameFinished();
+        this.currentWinner = model.getCurrentWinner();
+    }
+    /**
+     * Copies the card on a cell
+     */
+    private void copyCell(Board board, int boardIndex){
+        Node node = board.getPlayedCardNode(boardIndex);
+        this.cellDefinitions[boardIndex] = node.getHasCard() ? node.getCard().getDefinition() : null;
+        this.cellOwners[boardIndex] = node.getHasCard() ? (byte) node.getCard().getOwner() : 0;
+    }
+    /**
+     * Getter for the width of the board in cells
+     */
+    public int getBoardWidth(){
+        return this.boardWidth;
+    }
+    /**
+     * Getter for the height of the board in cells
+     */
+    public int getBoardHeight(){
+        return this.boardHeight;
+    }
+    /**
+     * Getter for the card on a cell, null for an empty cell
+     */
+    public CardDefinition getCellDefinition(int boardIndex){
+        return this.cellDefinitions[boardIndex];
+    }
+    /**
+     * Getter for the owner id of the card on a cell
+     */
+    public int getCellOwner(int boardIndex){
+        return this.cellOwners[boardIndex];
+    }
+    /**
+     * Getter for the amount of cards in a hand
+     */
+    public int getHandSize(int owner){
+        return this.handDefinitions[owner].length;
+    }
+    /**
+     * Getter for a card in a hand
+     */
+    public CardDefinition getHandDefinition(int owner, int slot){
+        return this.handDefinitions[owner][slot];
+    }
+    /**
+     * Getter for the view column a hand is drawn in
+     */
+    public int getHandColumn(int owner){
+        return this.handColumns[owner];
+    }
+    /**
+     * Getter for the amount of hands
+     */
+    public int getHandCount(){
+        return this.handDefinitions.length;
+    }
+    /**
+     * Getter for a player's score
+     */
+    public int getScore(int owner){
+        return this.scores[owner];
+    }
+    /**
+     * Getter for the owner id of the player to move
+     */
+    public int getActiveOwner(){
+        return this.activeOwner;
+    }
+    /**
+     * Getter for if the board is full
+     */
+    public boolean getGameFinished(){
+        return this.gameFinished;
+    }
+    /**
+     * Getter for the owner id of the player winning, Owner.NEUTRAL for a draw
+     */
+    public int getCurrentWinner(){
+        return this.currentWinner;
+    }
+}
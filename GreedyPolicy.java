@@ -0,0 +1,41 @@
+import java.util.SplittableRandom;
+/**
+ * Plays the move capturing the most cards right away, picking at random between equally good moves
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class GreedyPolicy implements MovePolicy
+{
+    /**
+     * Move buffer reused between calls
+     */
+    private final int[] moves = new int[GamePosition.MAX_HAND_SLOTS * BitBoard.MAX_CELLS];
+
+    /**
+     * Picks a move with the most captures
+     */
+    public int chooseMove(GamePosition position, SplittableRandom random){
+        int count = position.generateMoves(this.moves);
+        int bestMove = this.moves[0];
+        int bestCaptures = -1;
+        int ties = 0;
+        for(int i = 0; i < count; i++){
+            int captures = position.captureCount(this.moves[i]);
+            if(captures > bestCaptures){
+                bestCaptures = captures;
+                bestMove = this.moves[i];
+                ties = 1;
+            } else if(captures == bestCaptures && random.nextInt(++ties) == 0){
+                //Reservoir sampling keeps every tied move equally likely
+                bestMove = this.moves[i];
+            }
+        }
+        return bestMove;
+    }
+    /**
+     * The name used on the command line
+     */
+    public String toString(){
+        return "greedy";
+    }
+}
@@ -1,4 +1,5 @@
 import java.util.ArrayList;
+import java.util.SplittableRandom;
 /**
  * Player hands. Generated from shuffling the cardpool and drawing
  *
@@ -7,28 +8,42 @@ import java.util.ArrayList;
  */
 public class Hand extends CardCollection
 {
+    /**
+     * The owner id given to every card dealt to this hand
+     */
+    private final int owner;
 
     /**
      * Constructor for objects of class Hand
-     * Takes string "Player 1" or "Player 2"
+     * Takes the owner id Owner.PLAYER_ONE or Owner.PLAYER_TWO and is labelled with the owner's name
      */
-    public Hand(String label)
+    public Hand(int owner)
     {
-        super(label);
-        this.buildHand();
+        this(owner, new SplittableRandom());
     }
-    public Hand(String label, HiddenCardPool playerDeck){
-        super(label);
+    /**
+     * Creates a hand dealt from a fresh card pool built with a random source
+     * @param random the source of the pool's ranks and shuffle
+     */
+    public Hand(int owner, SplittableRandom random)
+    {
+        super(Owner.nameOf(owner));
+        this.owner = owner;
+        this.buildHand(new HiddenCardPool("cardPool", random));
+    }
+    public Hand(int owner, HiddenCardPool playerDeck){
+        super(Owner.nameOf(owner));
+        this.owner = owner;
         this.buildHand(playerDeck);
     }
     /**
      * initializes the starting hand with 5 cards
-     * sets the card owner equal to the label for coloring purposes
+     * sets the card owner equal to the hand's owner for coloring purposes
      */
     public void buildHand(HiddenCardPool cardPool){
         cardPool.deal(this, 5);
         for(int i = 0; i<this.size();i++){
-            this.showCard(i).setOwner(this.getLabel());
+            this.showCard(i).setOwner(this.owner);
         }
         
         
@@ -37,6 +52,12 @@ public class Hand extends CardCollection
         HiddenCardPool cardPool = new HiddenCardPool("cardPool");
         buildHand(cardPool);
     }
+    /**
+     * Getter for the owner id given to the hand's cards
+     */
+    public int getOwner(){
+        return this.owner;
+    }
     /**
      * Wrapper method for getting a hand size
      */
@@ -1,24 +1,37 @@
-import java.util.ArrayList;
-import java.util.Random;
-import java.util.Collections;
+import java.util.SplittableRandom;
 /**
  * This is just a hardcoded collection of cards
  * hands are generated from
- * For added fun, card ranks are randomly generated
+ * For added fun, card ranks are randomly generated.
+ * Every rank and the shuffle come from one SplittableRandom, so a pool built from a seeded
+ * random is the same every time.
  */
 public class HiddenCardPool extends CardCollection
 {
     /**
      * Names of monsters from Final Fantasy used to create these cards
      */
-    private final String[] cardNames ={"Bomb", "Cactuar", "Fat Chocobo", "Flan", "Ifrit", "Imp", "Iron Giant",
+    private static final String[] cardNames ={"Bomb", "Cactuar", "Fat Chocobo", "Flan", "Ifrit", "Imp", "Iron Giant",
         "Lamia", "Lich", "Magic Pot", "Tiamat", "Tonberry"};
+    /**
+     * The source of the pool's ranks and shuffle
+     */
+    private final SplittableRandom random;
     /**
      * Creates a hidden deck that players draw from to create their hands.
      */
     public HiddenCardPool(String label)
+    {
+        this(label, new SplittableRandom());
+    }
+    /**
+     * Creates a hidden deck with ranks and order drawn from a random source, usually split from the game's
+     * @param random the source of the pool's ranks and shuffle
+     */
+    public HiddenCardPool(String label, SplittableRandom random)
     {
         super(label);
+        this.random = random;
         generateCardPool();
     }
     /**
@@ -28,64 +41,63 @@ public class HiddenCardPool extends CardCollection
      * then shuffles it for when hands are dealt from this card pool.
      */
     public void generateCardPool(){
-        for (int i = 0; i < this.cardNames.length; i++){
-            String currentCard = this.cardNames[i];
-            boolean bossMonster = i >= 4 && i <= 10 && i%2 == 0;
-            if(bossMonster){
-                Card card = new Card(currentCard, generateCardRanks(3), "Neutral");
-                this.addCard(card);
-            }else {
-                Card card = new Card(currentCard, generateCardRanks(randomHighRankSides()),
-                "Neutral");
-                this.addCard(card);
-            }
+        for (int i = 0; i < cardNames.length; i++){
+            String currentCard = cardNames[i];
+            int packedRanks = generatePackedRanks(i, this.random);
+            this.addCard(new Card(CardDefinition.of(currentCard, packedRanks), Owner.NEUTRAL));
         }
-        this.shuffle();
+        this.shuffle(this.random);
     }
     /**
-     * Randomly generates 4 card ranks then shuffles them to distribute high rank edges
-     * @param highSides the amount of High rank sides of 4 to be generated (rank between 6-10)
-     * remaining sides are low ranks (rank between 1-5)
+     * Boss monsters always get 3 high rank sides, the rest get 1 to 4
+     * @param cardIndex the index of the card's name in the pool
      */
-    public ArrayList<Integer> generateCardRanks(int highSides)
-    {
-        int lowSides = 4 - highSides;
-        ArrayList<Integer> ranks = new ArrayList<Integer>();
-        for(int i = 0; i< highSides; i++){
-            ranks.add(generateHighRank());
-        }
-        for(int i = 0; i< lowSides; i++){
-            ranks.add(generateLowRank());
-        }
-        Collections.shuffle(ranks);
-        return ranks;
+    public static boolean isBossMonster(int cardIndex){
+        return cardIndex >= 4 && cardIndex <= 10 && cardIndex%2 == 0;
     }
     /**
-     * Generates a rank integer from 6 - 10
+     * Finds the index in the pool of a monster's name
+     * @return the index, -1 if no card has the name
      */
-    public int generateHighRank(){
-        int randHigh = generateRandomIntegerInRange(6, 10);
-        //System.out.println(randHigh);
-        return randHigh;
+    public static int indexOfName(String name){
+        for(int i = 0; i < cardNames.length; i++){
+            if(cardNames[i].equals(name)){
+                return i;
+            }
+        }
+        return -1;
     }
     /**
-     * Generates a rank integer from 1 - 5
+     * Getter for the monster's name at an index of the pool
      */
-    public int generateLowRank(){
-        return generateRandomIntegerInRange(1, 5);
+    public static String nameOf(int cardIndex){
+        return cardNames[cardIndex];
     }
     /**
-     * Values are inclusive on both sides of the range
+     * The amount of cards in a pool, one per monster name
      */
-    private int generateRandomIntegerInRange(int min, int max){
-        Random r = new Random();
-        return r.nextInt((max - min) + 1) + min;
+    public static int getPoolSize(){
+        return cardNames.length;
     }
     /**
-     * Generates a random amount of high rank sides
+     * Generates the packed ranks of the card at an index of the pool without creating a Card,
+     * following the same rules as generateCardPool. Used by simulations dealing millions of hands.
      */
-    private int randomHighRankSides(){
-        return generateRandomIntegerInRange(1, 4);
+    public static int generatePackedRanks(int cardIndex, SplittableRandom random){
+        int highSides = isBossMonster(cardIndex) ? 3 : random.nextInt(4) + 1;
+        int packedRanks = 0;
+        int remainingHigh = highSides;
+        //Picking each side high with the chance of the high sides left matches shuffling the ranks
+        for(int side = 0; side < 4; side++){
+            int rank;
+            if(random.nextInt(4 - side) < remainingHigh){
+                rank = random.nextInt(5) + 6;
+                remainingHigh--;
+            } else {
+                rank = random.nextInt(5) + 1;
+            }
+            packedRanks |= rank << (side * 4);
+        }
+        return packedRanks;
     }
-
 }
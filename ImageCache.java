@@ -0,0 +1,142 @@
+import java.awt.Image;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+/**
+ * Keeps decoded or composited images up to a memory cap, dropping the least recently used ones past it.
+ * An image's size is counted as four bytes a pixel. Images are held through soft references, so the garbage
+ * collector can also take them back when memory runs short before the cap is reached; an image taken back
+ * is simply missing and made again by whoever needs it. Safe to use from any thread.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class ImageCache<K>
+{
+    /**
+     * The most bytes of images kept
+     */
+    private final long capacityBytes;
+    /**
+     * The bytes of images kept, including ones collected but not purged yet
+     */
+    private long sizeBytes;
+    /**
+     * Every image by its key, least recently used first
+     */
+    private final LinkedHashMap<K, Entry<K>> entries;
+    /**
+     * Where the garbage collector puts the entries of images it took back
+     */
+    private final ReferenceQueue<Image> collected;
+
+    /**
+     * Creates an empty cache keeping up to capacityBytes of images
+     */
+    public ImageCache(long capacityBytes)
+    {
+        this.capacityBytes = capacityBytes;
+        this.sizeBytes = 0;
+        this.entries = new LinkedHashMap<K, Entry<K>>(16, 0.75f, true);
+        this.collected = new ReferenceQueue<Image>();
+    }
+    /**
+     * Gets an image and marks it most recently used
+     * @return the image or null if it isn't kept
+     */
+    public synchronized Image get(K key){
+        purgeCollected();
+        Entry<K> entry = this.entries.get(key);
+        return entry == null ? null : entry.get();
+    }
+    /**
+     * Keeps an image as the most recently used, replacing any image kept for the key,
+     * then drops the least recently used images until the cache is within its cap.
+     * An image bigger than the whole cap is still kept until the next image is put.
+     */
+    public synchronized void put(K key, Image image){
+        purgeCollected();
+        Entry<K> entry = new Entry<K>(key, image, bytesOf(image), this.collected);
+        Entry<K> replaced = this.entries.put(key, entry);
+        if(replaced != null){
+            this.sizeBytes -= replaced.bytes;
+        }
+        this.sizeBytes += entry.bytes;
+        Iterator<Entry<K>> eldest = this.entries.values().iterator();
+        while(this.sizeBytes > this.capacityBytes && this.entries.size() > 1){
+            this.sizeBytes -= eldest.next().bytes;
+            eldest.remove();
+        }
+    }
+    /**
+     * Drops every image
+     */
+    public synchronized void clear(){
+        this.entries.clear();
+        this.sizeBytes = 0;
+        purgeCollected();
+    }
+    /**
+     * Drops the entries of images the garbage collector took back
+     */
+    private void purgeCollected(){
+        Object reference;
+        while((reference = this.collected.poll()) != null){
+            Entry<?> entry = (Entry<?>) reference;
+            if(this.entries.get(entry.key) == entry){
+                this.entries.remove(entry.key);
+                this.sizeBytes -= entry.bytes;
+            }
+        }
+    }
+    /**
+     * Estimates the memory an image takes as four bytes a pixel
+     */
+    private static long bytesOf(Image image){
+        return 4L * Math.max(0, image.getWidth(null)) * Math.max(0, image.getHeight(null));
+    }
+    /**
+     * Getter for the amount of images kept
+     */
+    public synchronized int size(){
+        purgeCollected();
+        return this.entries.size();
+    }
+    /**
+     * Getter for the bytes of images kept
+     */
+    public synchronized long getSizeBytes(){
+        purgeCollected();
+        return this.sizeBytes;
+    }
+    /**
+     * Getter for the most bytes of images kept
+     */
+    public long getCapacityBytes(){
+        return this.capacityBytes;
+    }
+    /**
+     * An image held softly with what the cache needs to drop it once it is collected
+     */
+    private static class Entry<K> extends SoftReference<Image>
+    {
+        /**
+         * The key the image is kept by
+         */
+        final K key;
+        /**
+         * The memory the image takes
+         */
+        final long bytes;
+
+        /**
+         * Creates an entry that is queued once its image is collected
+         */
+        Entry(K key, Image image, long bytes, ReferenceQueue<Image> collected)
+        {
+            super(image, collected);
+            this.key = key;
+            this.bytes = bytes;
+        }
+    }
+}
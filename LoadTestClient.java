@@ -0,0 +1,327 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+/**
+ * A client of the GameServer or the BinaryGameServer that plays random legal moves, used to load test a server
+ * with many matches. Each match is played by two clients on their own threads, the first creating the session
+ * and the second joining it. Every move's round trip, from sending MOVE to reading its PLAYED, is timed.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class LoadTestClient implements Runnable
+{
+    /**
+     * The stack size of a client thread in bytes
+     */
+    private static final long CLIENT_STACK_BYTES = 256 * 1024;
+    /**
+     * The amount of cells on the standard board
+     */
+    private static final int CELLS = 9;
+    /**
+     * The port of the server
+     */
+    private final int port;
+    /**
+     * The seed of the session to create, used by the client creating the match
+     */
+    private final long sessionSeed;
+    /**
+     * Completed with the session id by the creating client, the joining client waits on it
+     */
+    private final CompletableFuture<Integer> sessionId;
+    /**
+     * If this client creates the session instead of joining it
+     */
+    private final boolean creator;
+    /**
+     * If this client speaks the MoveProtocol instead of text lines
+     */
+    private final boolean binary;
+    /**
+     * Chooses the moves
+     */
+    private final SplittableRandom random;
+    /**
+     * The round trip of each move this client made in nanoseconds
+     */
+    private final long[] roundTrips;
+    /**
+     * The amount of moves made
+     */
+    private int moves;
+    /**
+     * The amount of ERROR lines received
+     */
+    private int errors;
+    /**
+     * If the client played until GAMEOVER
+     */
+    private boolean finished;
+    /**
+     * The owner id of the client's seat, -1 before the server says
+     */
+    private int seat;
+    /**
+     * A bit for every cell holding a card
+     */
+    private int occupied;
+    /**
+     * The amount of cards left in the client's hand
+     */
+    private int handSize;
+    /**
+     * When the last MOVE was sent in nanoseconds
+     */
+    private long sentAt;
+
+    /**
+     * Creates a client for one side of a match
+     */
+    public LoadTestClient(int port, long sessionSeed, CompletableFuture<Integer> sessionId, boolean creator,
+    boolean binary, SplittableRandom random)
+    {
+        this.port = port;
+        this.sessionSeed = sessionSeed;
+        this.sessionId = sessionId;
+        this.creator = creator;
+        this.binary = binary;
+        this.random = random;
+        this.roundTrips = new long[DealGenerator.HAND_SIZE];
+        this.moves = 0;
+        this.errors = 0;
+        this.finished = false;
+        this.seat = -1;
+        this.occupied = 0;
+        this.handSize = DealGenerator.HAND_SIZE;
+        this.sentAt = 0;
+    }
+    /**
+     * Plays one match to the end
+     */
+    public void run(){
+        try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), this.port)){
+            socket.setTcpNoDelay(true);
+            if(this.binary){
+                playBinary(socket);
+                return;
+            }
+            BufferedReader reader = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+            if(this.creator){
+                send(writer, "NEW " + this.sessionSeed);
+            } else {
+                send(writer, "JOIN " + this.sessionId.get());
+            }
+            play(reader, writer);
+            send(writer, "QUIT");
+        } catch(Exception e){
+            this.sessionId.completeExceptionally(e);
+            this.errors++;
+        }
+    }
+    /**
+     * Answers the server's lines until the game is over
+     */
+    private void play(BufferedReader reader, Writer writer) throws IOException{
+        String line;
+        while((line = reader.readLine()) != null){
+            String[] words = line.split(" ");
+            int turn = -1;
+            switch(words[0]){
+                case "SESSION":
+                    this.seat = Integer.parseInt(words[3]);
+                    this.sessionId.complete(Integer.parseInt(words[1]));
+                    break;
+                case "READY":
+                    turn = Integer.parseInt(words[1]);
+                    break;
+                case "PLAYED":
+                    turn = played(Integer.parseInt(words[1]), Integer.parseInt(words[3]));
+                    break;
+                case "GAMEOVER":
+                    this.finished = true;
+                    return;
+                case "ERROR":
+                    this.errors++;
+                    turn = this.seat;
+                    break;
+                default:
+                    break;
+            }
+            int move = chooseMove(turn);
+            if(move >= 0){
+                send(writer, "MOVE " + (move >> 8) + " " + (move & 0xFF));
+            }
+        }
+    }
+    /**
+     * Plays a match speaking the MoveProtocol, answering the server's frames until the game is over
+     */
+    private void playBinary(Socket socket) throws Exception{
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        if(this.creator){
+            out.writeByte(9);
+            out.writeByte(MoveProtocol.NEW);
+            out.writeLong(this.sessionSeed);
+        } else {
+            out.writeByte(5);
+            out.writeByte(MoveProtocol.JOIN);
+            out.writeInt(this.sessionId.get());
+        }
+        out.flush();
+        byte[] payload = new byte[MoveProtocol.MAX_FRAME];
+        while(!this.finished){
+            int length = in.readUnsignedByte();
+            int type = in.readUnsignedByte();
+            in.readFully(payload, 0, length - 1);
+            int turn = -1;
+            switch(type){
+                case MoveProtocol.SESSION:
+                    this.seat = payload[4];
+                    this.sessionId.complete(((payload[0] & 0xFF) << 24) | ((payload[1] & 0xFF) << 16)
+                        | ((payload[2] & 0xFF) << 8) | (payload[3] & 0xFF));
+                    break;
+                case MoveProtocol.READY:
+                    turn = payload[0];
+                    break;
+                case MoveProtocol.PLAYED:
+                    turn = played(payload[0], payload[2]);
+                    break;
+                case MoveProtocol.GAMEOVER:
+                    this.finished = true;
+                    break;
+                case MoveProtocol.ERROR:
+                    this.errors++;
+                    turn = this.seat;
+                    break;
+                default:
+                    break;
+            }
+            int move = chooseMove(turn);
+            if(move >= 0){
+                out.writeByte(3);
+                out.writeByte(MoveProtocol.MOVE);
+                out.writeByte(move >> 8);
+                out.writeByte(move & 0xFF);
+                out.flush();
+            }
+        }
+        out.writeByte(1);
+        out.writeByte(MoveProtocol.QUIT);
+        out.flush();
+    }
+    /**
+     * Records a played move, timing it if it was this client's
+     * @return the owner id of the player to move next
+     */
+    private int played(int mover, int boardIndex){
+        this.occupied |= 1 << boardIndex;
+        if(mover == this.seat){
+            this.roundTrips[this.moves++] = System.nanoTime() - this.sentAt;
+            this.handSize--;
+        }
+        return Owner.opponent(mover);
+    }
+    /**
+     * Picks a random hand index and empty cell if it is this client's turn and starts timing the move
+     * @return the hand index shifted left by 8 bits or'ed with the board index, -1 if there is no move to make
+     */
+    private int chooseMove(int turn){
+        if(turn != this.seat || this.occupied == (1 << CELLS) - 1){
+            return -1;
+        }
+        int cell = this.random.nextInt(CELLS);
+        while((this.occupied & (1 << cell)) != 0){
+            cell = this.random.nextInt(CELLS);
+        }
+        this.sentAt = System.nanoTime();
+        return (this.random.nextInt(this.handSize) << 8) | cell;
+    }
+    /**
+     * Sends one line to the server
+     */
+    private static void send(Writer writer, String line) throws IOException{
+        writer.write(line);
+        writer.write('\n');
+        writer.flush();
+    }
+    /**
+     * Plays a number of matches at once against a GameServer and describes the round trips
+     * @param port the port of a running GameServer on localhost
+     * @param matches the amount of matches played at the same time, each uses two connections
+     */
+    public static String run(int port, int matches, long seed) throws Exception{
+        return run(port, matches, seed, false);
+    }
+    /**
+     * Plays a number of matches at once against a server and describes the round trips
+     * @param port the port of a running server on localhost
+     * @param matches the amount of matches played at the same time, each uses two connections
+     * @param binary true for a BinaryGameServer, false for a GameServer
+     */
+    public static String run(int port, int matches, long seed, boolean binary) throws Exception{
+        SplittableRandom seedRandom = new SplittableRandom(seed);
+        LoadTestClient[] clients = new LoadTestClient[matches * 2];
+        Thread[] threads = new Thread[clients.length];
+        for(int match = 0; match < matches; match++){
+            CompletableFuture<Integer> sessionId = new CompletableFuture<Integer>();
+            long sessionSeed = seedRandom.nextLong();
+            clients[2 * match] = new LoadTestClient(port, sessionSeed, sessionId, true, binary, seedRandom.split());
+            clients[2 * match + 1] = new LoadTestClient(port, sessionSeed, sessionId, false, binary, seedRandom.split());
+        }
+        long start = System.nanoTime();
+        for(int i = 0; i < clients.length; i++){
+            threads[i] = new Thread(null, clients[i], "load-client-" + i, CLIENT_STACK_BYTES);
+            threads[i].start();
+        }
+        for(Thread thread: threads){
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        int totalMoves = 0;
+        int errors = 0;
+        int finished = 0;
+        for(LoadTestClient client: clients){
+            totalMoves += client.moves;
+            errors += client.errors;
+            finished += client.finished ? 1 : 0;
+        }
+        long[] roundTrips = new long[totalMoves];
+        int next = 0;
+        for(LoadTestClient client: clients){
+            System.arraycopy(client.roundTrips, 0, roundTrips, next, client.moves);
+            next += client.moves;
+        }
+        Arrays.sort(roundTrips);
+        return String.format("%d matches (%d finished) on %d connections in %.2f s, %d moves, %.0f moves/s, %d errors%n"
+            + "move round trip p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms",
+            matches, finished / 2, clients.length, elapsed / 1e9, totalMoves, totalMoves * 1e9 / elapsed, errors,
+            percentile(roundTrips, 0.5), percentile(roundTrips, 0.99), percentile(roundTrips, 0.999),
+            percentile(roundTrips, 1.0));
+    }
+    /**
+     * Reads a percentile of sorted nanoseconds in milliseconds
+     */
+    private static double percentile(long[] sorted, double fraction){
+        if(sorted.length == 0){
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,290 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+/**
+ * Monte Carlo Tree Search over a GamePosition for setups too varied to precompute,
+ * such as the randomly generated decks of HiddenCardPool.
+ * Each iteration walks down the tree choosing children by UCT, expands a node once it has
+ * been visited often enough, finishes the game with random moves and backs the result up.
+ * Every worker thread plays on its own copy of the position, making and unmaking moves
+ * instead of copying it per playout, while all workers share one tree (tree parallelism).
+ * A worker counts a visit on each node as it walks down, before it knows the result,
+ * which acts as a virtual loss and steers the other workers to different branches.
+ * A search stops after a playout budget, a time budget, or whichever comes first.
+ * The SearchResult's nodes are the playouts made, so its nodes per second are playouts
+ * per second, and its score is the chance of winning the best move in percent
+ * (a draw counts as half a win).
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class MonteCarloSearch implements MoveSearch
+{
+    /**
+     * The UCT exploration constant
+     */
+    private static final double EXPLORATION = Math.sqrt(2);
+    /**
+     * How many visits a node needs before its children are added to the tree
+     */
+    private static final int EXPAND_VISITS = 8;
+    /**
+     * The amount of worker threads
+     */
+    private final int threads;
+    /**
+     * The most playouts per search, 0 for no limit
+     */
+    private final long playoutBudget;
+    /**
+     * Splits off the random source of every worker
+     */
+    private final SplittableRandom random;
+
+    /**
+     * Creates a search
+     * @param threads the amount of worker threads
+     * @param playoutBudget the most playouts per search, 0 to only stop on time
+     * @param seed the seed of the random playouts
+     */
+    public MonteCarloSearch(int threads, long playoutBudget, long seed)
+    {
+        this.threads = threads;
+        this.playoutBudget = playoutBudget;
+        this.random = new SplittableRandom(seed);
+    }
+    /**
+     * Searches a position until the playout budget or the time budget runs out
+     * @param timeLimitMillis the time budget, 0 to only stop on playouts
+     */
+    public SearchResult search(GamePosition position, long timeLimitMillis){
+        if(timeLimitMillis <= 0 && this.playoutBudget <= 0){
+            throw new IllegalArgumentException("A Monte Carlo search needs a playout or time budget");
+        }
+        long start = System.nanoTime();
+        long deadline = timeLimitMillis > 0 ? start + timeLimitMillis * 1000000L : Long.MAX_VALUE;
+        long budget = this.playoutBudget > 0 ? this.playoutBudget : Long.MAX_VALUE;
+        TreeNode root = new TreeNode(-1);
+        root.expand(position);
+        AtomicLong playouts = new AtomicLong();
+        AtomicInteger maxDepth = new AtomicInteger();
+        Thread[] workers = new Thread[this.threads];
+        for(int i = 0; i < this.threads; i++){
+            Worker worker = new Worker(root, new GamePosition(position), this.random.split(),
+                playouts, budget, deadline, maxDepth);
+            workers[i] = new Thread(worker, "MonteCarloSearch-" + i);
+            workers[i].start();
+        }
+        for(Thread worker: workers){
+            try{
+                worker.join();
+            } catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        }
+        TreeNode best = root.mostVisitedChild();
+        int bestMove = best == null ? -1 : best.move;
+        int score = best == null || best.visits.get() == 0 ? 0
+            : (int) (best.wins.get() * 50 / best.visits.get());
+        return new SearchResult(bestMove, score, maxDepth.get(), Math.min(playouts.get(), budget),
+            System.nanoTime() - start);
+    }
+    /**
+     * A node of the shared search tree. Statistics are from the point of view of the player
+     * who made the node's move.
+     */
+    private static class TreeNode
+    {
+        /**
+         * The move leading to this node
+         */
+        final int move;
+        /**
+         * The visits so far, counted when a worker walks through the node
+         */
+        final AtomicInteger visits;
+        /**
+         * The results backed up so far in half points, 2 for a win and 1 for a draw
+         */
+        final AtomicLong wins;
+        /**
+         * The children, null until the node is expanded
+         */
+        volatile TreeNode[] children;
+
+        /**
+         * Creates an unvisited node
+         */
+        TreeNode(int move)
+        {
+            this.move = move;
+            this.visits = new AtomicInteger();
+            this.wins = new AtomicLong();
+        }
+        /**
+         * Adds a child for every move of the position, once even if several workers try at the same time
+         */
+        void expand(GamePosition position){
+            synchronized(this){
+                if(this.children == null){
+                    int[] moves = new int[GamePosition.MAX_HAND_SLOTS * BitBoard.MAX_CELLS];
+                    int count = position.generateMoves(moves);
+                    TreeNode[] children = new TreeNode[count];
+                    for(int i = 0; i < count; i++){
+                        children[i] = new TreeNode(moves[i]);
+                    }
+                    this.children = children;
+                }
+            }
+        }
+        /**
+         * Chooses the child with the highest UCT value, unvisited children first
+         */
+        TreeNode selectChild(){
+            TreeNode[] children = this.children;
+            double logVisits = Math.log(Math.max(1, this.visits.get()));
+            TreeNode best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for(TreeNode child: children){
+                int visits = child.visits.get();
+                if(visits == 0){
+                    return child;
+                }
+                double value = child.wins.get() / (2.0 * visits) + EXPLORATION * Math.sqrt(logVisits / visits);
+                if(value > bestValue){
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+        /**
+         * The child visited the most, which is the move the search recommends
+         */
+        TreeNode mostVisitedChild(){
+            TreeNode[] children = this.children;
+            TreeNode best = null;
+            if(children != null){
+                for(TreeNode child: children){
+                    if(best == null || child.visits.get() > best.visits.get()){
+                        best = child;
+                    }
+                }
+            }
+            return best;
+        }
+    }
+    /**
+     * Runs iterations on its own copy of the position until the budget runs out
+     */
+    private static class Worker implements Runnable
+    {
+        /**
+         * The shared root of the tree
+         */
+        private final TreeNode root;
+        /**
+         * This worker's copy of the root position
+         */
+        private final GamePosition position;
+        /**
+         * This worker's random source
+         */
+        private final SplittableRandom random;
+        /**
+         * The playouts started by every worker
+         */
+        private final AtomicLong playouts;
+        /**
+         * The most playouts to start
+         */
+        private final long budget;
+        /**
+         * The System.nanoTime() to stop at
+         */
+        private final long deadline;
+        /**
+         * The deepest tree node reached by any worker
+         */
+        private final AtomicInteger maxDepth;
+        /**
+         * The nodes walked through in the current iteration
+         */
+        private final TreeNode[] path;
+        /**
+         * Move buffer for the random playouts
+         */
+        private final int[] moves;
+
+        /**
+         * Creates a worker
+         */
+        Worker(TreeNode root, GamePosition position, SplittableRandom random, AtomicLong playouts,
+        long budget, long deadline, AtomicInteger maxDepth)
+        {
+            this.root = root;
+            this.position = position;
+            this.random = random;
+            this.playouts = playouts;
+            this.budget = budget;
+            this.deadline = deadline;
+            this.maxDepth = maxDepth;
+            this.path = new TreeNode[position.getRemainingPlies() + 2];
+            this.moves = new int[GamePosition.MAX_HAND_SLOTS * BitBoard.MAX_CELLS];
+        }
+        /**
+         * Runs iterations, checking the clock every 64 of them
+         */
+        public void run(){
+            long iterations = 0;
+            while(this.playouts.incrementAndGet() <= this.budget){
+                iterate();
+                iterations++;
+                if((iterations & 63) == 0 && System.nanoTime() > this.deadline){
+                    break;
+                }
+            }
+        }
+        /**
+         * One iteration: select, expand, play out randomly and back the result up
+         */
+        private void iterate(){
+            GamePosition position = this.position;
+            TreeNode node = this.root;
+            int depth = 0;
+            this.root.visits.incrementAndGet();
+            while(!position.isFinished()){
+                if(node.children == null){
+                    if(node.visits.get() < EXPAND_VISITS){
+                        break;
+                    }
+                    node.expand(position);
+                }
+                node = node.selectChild();
+                //Counting the visit now is the virtual loss until the result is backed up
+                node.visits.incrementAndGet();
+                position.makeMove(node.move);
+                depth++;
+                this.path[depth] = node;
+            }
+            if(depth > this.maxDepth.get()){
+                this.maxDepth.set(depth);
+            }
+            int randomMoves = 0;
+            while(!position.isFinished()){
+                int count = position.generateMoves(this.moves);
+                position.makeMove(this.moves[this.random.nextInt(count)]);
+                randomMoves++;
+            }
+            int playerOneLead = position.score(Owner.PLAYER_ONE) - position.score(Owner.PLAYER_TWO);
+            for(int i = 0; i < randomMoves; i++){
+                position.unmakeMove();
+            }
+            for(int i = depth; i > 0; i--){
+                position.unmakeMove();
+                //After unmaking, the player to move is the one who made the node's move
+                int lead = position.getSideToMove() == Owner.PLAYER_ONE ? playerOneLead : -playerOneLead;
+                this.path[i].wins.addAndGet(lead > 0 ? 2 : lead == 0 ? 1 : 0);
+            }
+        }
+    }
+}
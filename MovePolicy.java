@@ -0,0 +1,18 @@
+import java.util.SplittableRandom;
+/**
+ * Picks the move of the player to move in a simulated game.
+ * A policy may keep state such as search buffers, so a Simulation
+ * creates one policy per thread.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public interface MovePolicy
+{
+    /**
+     * Picks a move of the position's player to move. The position must not be finished
+     * and must be left as it was passed in.
+     * @param random the random source of the game being played
+     * @return a move packed as in GamePosition
+     */
+    int chooseMove(GamePosition position, SplittableRandom random);
+}
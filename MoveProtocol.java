@@ -0,0 +1,143 @@
+import java.nio.ByteBuffer;
+/**
+ * The binary protocol spoken by the BinaryGameServer. It carries the same messages as GameConnection's text lines
+ * in a few bytes each. Every frame is a length byte counting the bytes after it, a type byte, then the payload.
+ * Numbers are big endian, cells and hand indexes are single bytes.
+ * <ul>
+ * <li>Client frames: NEW seed(8), JOIN session(4), MOVE handIndex(1) boardIndex(1), STATE, QUIT</li>
+ * <li>Server frames: SESSION session(4) seat(1) seed(8), READY turn(1),
+ * PLAYED seat(1) handIndex(1) boardIndex(1) flipCount(1) flips(flipCount), GAMEOVER winner(1),
+ * ERROR code(1), LEFT seat(1) and STATE as written by GameSession.writeState</li>
+ * </ul>
+ * A move costs 4 bytes from the client and 6 bytes plus one per captured card back to each player.
+ * Error codes below 16 are GameSession.play results, the others are the ERROR_ constants.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public final class MoveProtocol
+{
+    /**
+     * Client frame creating a session and taking its first seat
+     */
+    public static final int NEW = 0x01;
+    /**
+     * Client frame taking the free seat of a session
+     */
+    public static final int JOIN = 0x02;
+    /**
+     * Client frame playing a card
+     */
+    public static final int MOVE = 0x03;
+    /**
+     * Client frame asking for the session's state
+     */
+    public static final int STATE = 0x04;
+    /**
+     * Client frame leaving the session and closing the connection
+     */
+    public static final int QUIT = 0x05;
+    /**
+     * Server frame telling a client where it sat
+     */
+    public static final int SESSION = 0x41;
+    /**
+     * Server frame telling both players the match started and who goes first
+     */
+    public static final int READY = 0x42;
+    /**
+     * Server frame telling both players a move was played and which cells it captured
+     */
+    public static final int PLAYED = 0x43;
+    /**
+     * Server frame telling both players the winner
+     */
+    public static final int GAMEOVER = 0x44;
+    /**
+     * Server frame refusing a client frame
+     */
+    public static final int ERROR = 0x45;
+    /**
+     * Server frame telling a player their opponent left
+     */
+    public static final int LEFT = 0x46;
+    /**
+     * Server frame answering STATE
+     */
+    public static final int STATE_REPLY = 0x47;
+    /**
+     * Error sent for frames that need a session before NEW or JOIN
+     */
+    public static final int ERROR_NOT_IN_SESSION = 16;
+    /**
+     * Error sent when JOIN names a session that doesn't exist
+     */
+    public static final int ERROR_NO_SUCH_SESSION = 17;
+    /**
+     * Error sent when JOIN names a session with no free seat
+     */
+    public static final int ERROR_SESSION_FULL = 18;
+    /**
+     * Error sent for frames of an unknown type or the wrong length
+     */
+    public static final int ERROR_BAD_FRAME = 19;
+    /**
+     * The largest frame including its length byte
+     */
+    public static final int MAX_FRAME = 256;
+
+    /**
+     * MoveProtocol only holds constants and encoders
+     */
+    private MoveProtocol()
+    {
+    }
+    /**
+     * Starts a frame of a type, leaving room for its length
+     * @return where the frame starts, passed to endFrame
+     */
+    public static int beginFrame(ByteBuffer out, int type){
+        int start = out.position();
+        out.put((byte) 0);
+        out.put((byte) type);
+        return start;
+    }
+    /**
+     * Writes a frame's length once its payload is written
+     */
+    public static void endFrame(ByteBuffer out, int start){
+        out.put(start, (byte) (out.position() - start - 1));
+    }
+    /**
+     * Writes a frame holding a type and one byte
+     */
+    public static void putByteFrame(ByteBuffer out, int type, int value){
+        out.put((byte) 2);
+        out.put((byte) type);
+        out.put((byte) value);
+    }
+    /**
+     * Writes a SESSION frame
+     */
+    public static void putSession(ByteBuffer out, int sessionId, int seat, long seed){
+        out.put((byte) 14);
+        out.put((byte) SESSION);
+        out.putInt(sessionId);
+        out.put((byte) seat);
+        out.putLong(seed);
+    }
+    /**
+     * Writes a PLAYED frame
+     * @param flips the captured cells, only the first flipCount are written
+     */
+    public static void putPlayed(ByteBuffer out, int seat, int handIndex, int boardIndex, int[] flips, int flipCount){
+        out.put((byte) (5 + flipCount));
+        out.put((byte) PLAYED);
+        out.put((byte) seat);
+        out.put((byte) handIndex);
+        out.put((byte) boardIndex);
+        out.put((byte) flipCount);
+        for(int i = 0; i < flipCount; i++){
+            out.put((byte) flips[i]);
+        }
+    }
+}
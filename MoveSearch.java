@@ -0,0 +1,15 @@
+
+/**
+ * Something that picks a move for the player to move in a GamePosition.
+ * Implemented by the searches a ComputerPlayer can use.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public interface MoveSearch
+{
+    /**
+     * Searches a position for the best move without changing the position
+     * @param timeLimitMillis the time budget, 0 for the search's own limit
+     */
+    SearchResult search(GamePosition position, long timeLimitMillis);
+}
@@ -73,6 +73,13 @@ public class Node
     public void toggleHasCard(){
         this.setHasCard(!getHasCard());
     }
+    /**
+     * Removes the card from the node, used when a play is undone
+     */
+    public void clearCard(){
+        this.card = null;
+        this.setHasCard(false);
+    }
     /**
      * Getter for the node's ID and index. mapped to the equivalent index in the board class (when the graph structure is created)
      */
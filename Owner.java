@@ -0,0 +1,59 @@
+/**
+ * The owner ids used by cards, players and boards.
+ * An owner is a small int so the game state can index per owner arrays and compare owners
+ * without any String work. Names and colors are only looked up here when something is drawn or printed.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public final class Owner
+{
+    /**
+     * The owner id of Player 1, who draws in Blue
+     */
+    public static final int PLAYER_ONE = 0;
+    /**
+     * The owner id of Player 2, who draws in Red
+     */
+    public static final int PLAYER_TWO = 1;
+    /**
+     * The owner id of cards that have not been dealt to a player yet
+     */
+    public static final int NEUTRAL = 2;
+    /**
+     * The amount of players, the size of per player arrays
+     */
+    public static final int PLAYER_COUNT = 2;
+    /**
+     * The display name of every owner id
+     */
+    private static final String[] NAMES = {"Player 1", "Player 2", "Neutral"};
+    /**
+     * The card background color of every owner id, also the prefix of the background image files
+     */
+    private static final String[] COLORS = {"Blue", "Red", "Neutral"};
+
+    /**
+     * Owner only holds constants and lookups
+     */
+    private Owner()
+    {
+    }
+    /**
+     * Gets the name an owner is shown with, "Player 1", "Player 2" or "Neutral"
+     */
+    public static String nameOf(int owner){
+        return NAMES[owner];
+    }
+    /**
+     * Gets the color a card is drawn with for its owner, "Blue", "Red" or "Neutral"
+     */
+    public static String colorOf(int owner){
+        return COLORS[owner];
+    }
+    /**
+     * Gets the other player's owner id
+     */
+    public static int opponent(int owner){
+        return owner ^ 1;
+    }
+}
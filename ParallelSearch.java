@@ -0,0 +1,242 @@
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+/**
+ * Searches a GamePosition on every core with a ForkJoinPool using young brothers wait.
+ * At the root and optionally the plies below it (the split depth) the eldest move is searched
+ * first to get a bound, then its younger brothers are forked as separate tasks with that
+ * bound and idle workers steal them. Below the split depth each task runs an ordinary
+ * AlphaBetaSearch. Every task plays on its own copy of the position, and all tasks share
+ * one TranspositionTable.
+ * The reported move and score do not depend on thread timing: younger brothers are searched
+ * with the fixed bound of their eldest brother, so a score that beats it is exact, and ties
+ * go to the move that comes first in move order. Node counts do vary between runs.
+ * Run main to measure scaling from 1 to 32 threads.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class ParallelSearch
+{
+    /**
+     * The default amount of plies from the root where moves are split between workers
+     */
+    public static final int DEFAULT_SPLIT_DEPTH = 1;
+    /**
+     * The pool running the search tasks
+     */
+    private final ForkJoinPool pool;
+    /**
+     * The table shared by every worker, may be null
+     */
+    private final TranspositionTable table;
+    /**
+     * How many plies from the root moves are split between workers
+     */
+    private final int splitDepth;
+    /**
+     * One sequential search per worker thread, since a search's buffers can't be shared
+     */
+    private final ThreadLocal<AlphaBetaSearch> searches;
+    /**
+     * The amount of positions visited by the current search, summed over every worker
+     */
+    private final LongAdder nodes;
+
+    /**
+     * Creates a parallel search splitting DEFAULT_SPLIT_DEPTH plies
+     * @param threads the amount of worker threads
+     * @param table the table shared by the workers, null for none
+     */
+    public ParallelSearch(int threads, TranspositionTable table)
+    {
+        this(threads, table, DEFAULT_SPLIT_DEPTH);
+    }
+    /**
+     * Creates a parallel search
+     * @param threads the amount of worker threads
+     * @param table the table shared by the workers, null for none
+     * @param splitDepth how many plies from the root moves are split between workers
+     */
+    public ParallelSearch(int threads, final TranspositionTable table, int splitDepth)
+    {
+        this.pool = new ForkJoinPool(threads);
+        this.table = table;
+        this.splitDepth = splitDepth;
+        this.searches = new ThreadLocal<AlphaBetaSearch>(){
+            protected AlphaBetaSearch initialValue(){
+                return new AlphaBetaSearch(table);
+            }
+        };
+        this.nodes = new LongAdder();
+    }
+    /**
+     * Searches a position to the end of the game
+     */
+    public SearchResult search(GamePosition position){
+        return search(position, position.getRemainingPlies());
+    }
+    /**
+     * Searches a position to a depth. The position itself is not changed.
+     */
+    public SearchResult search(GamePosition position, int depth){
+        long start = System.nanoTime();
+        this.nodes.reset();
+        if(this.table != null){
+            this.table.newSearch();
+        }
+        depth = Math.min(depth, position.getRemainingPlies());
+        SplitTask root = new SplitTask(new GamePosition(position), depth,
+            -AlphaBetaSearch.INFINITY, AlphaBetaSearch.INFINITY, 0);
+        int score = this.pool.invoke(root);
+        return new SearchResult(root.bestMove, score, depth, this.nodes.sum(), System.nanoTime() - start);
+    }
+    /**
+     * Stops the worker threads. The search can't be used afterwards.
+     */
+    public void shutdown(){
+        this.pool.shutdown();
+    }
+    /**
+     * Getter for the amount of worker threads
+     */
+    public int getThreads(){
+        return this.pool.getParallelism();
+    }
+    /**
+     * Searches one position, splitting its moves between workers when it is within the split depth
+     */
+    private class SplitTask extends RecursiveTask<Integer>
+    {
+        /**
+         * The version of the serialized form, tasks are never serialized
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * This task's own copy of the position
+         */
+        private final GamePosition position;
+        /**
+         * The depth left to search
+         */
+        private final int depth;
+        /**
+         * The lower bound of the search window
+         */
+        private final int alpha;
+        /**
+         * The upper bound of the search window
+         */
+        private final int beta;
+        /**
+         * The distance from the root
+         */
+        private final int ply;
+        /**
+         * The best move found, -1 if the position wasn't split
+         */
+        private int bestMove;
+
+        /**
+         * Creates a task searching a position it owns
+         */
+        SplitTask(GamePosition position, int depth, int alpha, int beta, int ply)
+        {
+            this.position = position;
+            this.depth = depth;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.ply = ply;
+            this.bestMove = -1;
+        }
+        /**
+         * Searches the eldest move, then forks the younger brothers with its bound
+         * @return the score from the point of view of the player to move
+         */
+        protected Integer compute(){
+            if(this.ply >= splitDepth || this.depth <= 1 || this.position.isFinished()){
+                AlphaBetaSearch search = searches.get();
+                int score = search.searchWindow(this.position, this.depth, this.alpha, this.beta);
+                nodes.add(search.getNodes());
+                return score;
+            }
+            nodes.increment();
+            int[] moves = new int[GamePosition.MAX_HAND_SLOTS * BitBoard.MAX_CELLS];
+            int count = AlphaBetaSearch.orderMoves(this.position, moves, new int[moves.length], -1);
+            int best = -childTask(moves[0], -this.beta, -this.alpha).compute();
+            this.bestMove = moves[0];
+            int bound = Math.max(this.alpha, best);
+            if(bound >= this.beta || count == 1){
+                return best;
+            }
+            SplitTask[] brothers = new SplitTask[count - 1];
+            for(int i = 1; i < count; i++){
+                brothers[i - 1] = childTask(moves[i], -this.beta, -bound);
+                brothers[i - 1].fork();
+            }
+            //Joined in move order so ties always go to the earlier move
+            for(int i = 1; i < count; i++){
+                int score = -brothers[i - 1].join();
+                if(score > best){
+                    best = score;
+                    this.bestMove = moves[i];
+                }
+                if(best >= this.beta){
+                    //Cutoff, brothers nobody has started yet don't need searching
+                    for(int j = i; j < count - 1; j++){
+                        brothers[j].cancel(false);
+                    }
+                    break;
+                }
+            }
+            return best;
+        }
+        /**
+         * Creates a task for the position after a move, on its own copy of the position
+         */
+        private SplitTask childTask(int move, int alpha, int beta){
+            GamePosition child = new GamePosition(this.position);
+            child.makeMove(move);
+            return new SplitTask(child, this.depth - 1, alpha, beta, this.ply + 1);
+        }
+    }
+    /**
+     * Measures how the search scales by solving the same seeded deals with 1 up to 32 threads.
+     * Pass a different seed as the first argument to change the deals.
+     */
+    public static void main(String[] args){
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1L;
+        int deals = 5;
+        GamePosition[] positions = new GamePosition[deals];
+        Random random = new Random(seed);
+        for(int i = 0; i < deals; i++){
+            positions[i] = new GamePosition(3, 3, Topology.GRID);
+            for(int owner = 0; owner < 2; owner++){
+                for(int slot = 0; slot < 5; slot++){
+                    positions[i].setHandCard(owner, slot, Card.packRanks(random.nextInt(10) + 1,
+                        random.nextInt(10) + 1, random.nextInt(10) + 1, random.nextInt(10) + 1));
+                }
+            }
+        }
+        System.out.println("cores: " + Runtime.getRuntime().availableProcessors());
+        long baseline = 0;
+        for(int threads = 1; threads <= 32; threads *= 2){
+            ParallelSearch search = new ParallelSearch(threads, new TranspositionTable(64L * 1024 * 1024));
+            long nodes = 0;
+            long start = System.nanoTime();
+            StringBuilder results = new StringBuilder();
+            for(GamePosition position: positions){
+                SearchResult result = search.search(position);
+                nodes += result.getNodes();
+                results.append(" ").append(result.getBestMove()).append("/").append(result.getScore());
+            }
+            long elapsed = System.nanoTime() - start;
+            search.shutdown();
+            if(threads == 1){
+                baseline = elapsed;
+            }
+            System.out.println(threads + " threads: " + elapsed / 1000000 + " ms, " + nodes + " nodes, speedup "
+                + String.format("%.2f", (double) baseline / elapsed) + ", moves/scores" + results);
+        }
+    }
+}
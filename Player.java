@@ -1,3 +1,4 @@
+import java.util.SplittableRandom;
 
 /**
  * The player object represents
@@ -24,11 +25,10 @@ public class Player
      */
     private Hand hand;
     /**
-     * The player name, as currently written this will only be "Player 1" or "Player 2"
-     * If it is modified in the future, the card object must have String variables that indicate
-     * Player1 and Player2. This will then be used to calculate a card's color instead.
+     * The player's owner id, Owner.PLAYER_ONE or Owner.PLAYER_TWO.
+     * Cards dealt to the player get the same id, which the view turns into the player's name and color.
      */
-    private final String owner;
+    private final int owner;
     /**
      * The player's hand location column when drawn onto the view
      */
@@ -46,13 +46,13 @@ public class Player
 
     /**
      * Creates player object taking the folllowing parameters
-     * @param owner The player's name which is a string that should be "Player 1" or "Player 2"
+     * @param owner The player's owner id, Owner.PLAYER_ONE or Owner.PLAYER_TWO
      * @param deck The cardpool a player can build their hand from
      * @param hand The hand used in the game that contains cards
      * @param boardLocation the index column the player's hand is at.
      * @param cardsInHand the total of all cards in this player's hand, used when calculating 
      */
-    public Player(String owner, HiddenCardPool deck, Hand hand, int boardLocation)
+    public Player(int owner, HiddenCardPool deck, Hand hand, int boardLocation)
     {
         this.owner = owner;
         this.deck = deck;
@@ -66,9 +66,16 @@ public class Player
     /**
      * 2nd Constructor if a player is ever generated which it IS in the standard case
      */
-    public Player(String owner){
+    public Player(int owner){
+        this(owner, new SplittableRandom());
+    }
+    /**
+     * Creates a player whose deck is built from a random source, usually split from the game's
+     * @param random the source of the deck's ranks and shuffle
+     */
+    public Player(int owner, SplittableRandom random){
         this.owner = owner;
-        buildPlayer();
+        buildPlayer(random);
         this.deck = deck;
         this.hand = hand;
         this.turn = false;
@@ -88,13 +95,20 @@ public class Player
         return this.cardsInHand;
     }
     /**
-     * Getter for player's name or "owner" which is either "Player 1" or "Player 2"
-     * as generated by the controller class. It is open to modify, in the event functionality
-     * beyond pregenerated hands and matches are possible i.e. IRL players can build a deck and name their character
+     * Getter for player's owner id which is either Owner.PLAYER_ONE or Owner.PLAYER_TWO
+     * as generated by the model. Compared against card owners and used to index scores.
      */
-    public String getOwner(){
+    public int getOwner(){
         return this.owner;
     }
+    /**
+     * Getter for the name the player is shown with, "Player 1" or "Player 2".
+     * It is open to modify, in the event functionality beyond pregenerated hands
+     * and matches are possible i.e. IRL players can build a deck and name their character
+     */
+    public String getName(){
+        return Owner.nameOf(this.owner);
+    }
     /**
      *
      * @return The player's hand containing all the cards they can make a play with
@@ -153,9 +167,9 @@ public class Player
      * Builds a deck of cards to generate a hand from
      * and assigns it as the player's deck.
      */
-    private void buildDeck(){
-        String deckLabel = this.getOwner();
-        HiddenCardPool deck = new HiddenCardPool(deckLabel);
+    private void buildDeck(SplittableRandom random){
+        String deckLabel = this.getName();
+        HiddenCardPool deck = new HiddenCardPool(deckLabel, random);
         this.setDeck(deck);
     }
     /** 
@@ -163,8 +177,7 @@ public class Player
      * assigns it to the player.
      */
     private void buildHand(){
-        String handLabel = this.getOwner();
-        Hand playerHand = new Hand(handLabel);
+        Hand playerHand = new Hand(this.getOwner(), this.getDeck());
         this.setHand(playerHand);
     }
     /**
@@ -201,7 +214,7 @@ public class Player
     /**
      * Method for the player to check if a play is valid before removing the card from their hand
      * @param boardIndex the board index to test if there's a card at
-     * @param board the board to test, passed in by the model's attemptPlay method
+     * @param board the board to test, passed in by the model's play method
      */
     public boolean attemptPlayCard(int boardIndex, Board board){
         return board.attemptPlayCardAt(boardIndex);
@@ -211,7 +224,13 @@ public class Player
      * 
      */
     public void buildPlayer(){
-        this.buildDeck();
+        this.buildPlayer(new SplittableRandom());
+    }
+    /**
+     * Builds the player's deck and hand from a random source
+     */
+    public void buildPlayer(SplittableRandom random){
+        this.buildDeck(random);
         this.buildHand();
     }
 
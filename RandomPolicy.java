@@ -0,0 +1,27 @@
+import java.util.SplittableRandom;
+/**
+ * Plays a uniformly random legal move
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class RandomPolicy implements MovePolicy
+{
+    /**
+     * Move buffer reused between calls
+     */
+    private final int[] moves = new int[GamePosition.MAX_HAND_SLOTS * BitBoard.MAX_CELLS];
+
+    /**
+     * Picks one of the legal moves at random
+     */
+    public int chooseMove(GamePosition position, SplittableRandom random){
+        int count = position.generateMoves(this.moves);
+        return this.moves[random.nextInt(count)];
+    }
+    /**
+     * The name used on the command line
+     */
+    public String toString(){
+        return "random";
+    }
+}
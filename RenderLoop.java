@@ -0,0 +1,106 @@
+import java.util.concurrent.locks.LockSupport;
+/**
+ * Drives a TripleTriadView's active rendering from its own thread at a fixed frame rate.
+ * Every frame tick the view draws a frame if one was requested since the last, so an idle board costs
+ * nothing but the wake up. Ticks are scheduled from the time the loop started rather than from when the
+ * previous frame finished, so frame times stay steady; a tick that runs late is not made up with a burst of frames.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class RenderLoop implements Runnable
+{
+    /**
+     * The view drawn
+     */
+    private final TripleTriadView view;
+    /**
+     * The time between frame ticks in nanoseconds
+     */
+    private final long frameNanos;
+    /**
+     * Cleared to stop the loop
+     */
+    private volatile boolean running;
+    /**
+     * The amount of frames drawn
+     */
+    private volatile long frameCount;
+    /**
+     * The time spent drawing every frame so far in nanoseconds
+     */
+    private volatile long totalRenderNanos;
+    /**
+     * The longest a frame took to draw in nanoseconds
+     */
+    private volatile long worstRenderNanos;
+
+    /**
+     * Creates a loop drawing a view at most framesPerSecond times a second
+     */
+    public RenderLoop(TripleTriadView view, int framesPerSecond)
+    {
+        this.view = view;
+        this.frameNanos = 1000000000L / framesPerSecond;
+        this.running = false;
+        this.frameCount = 0;
+        this.totalRenderNanos = 0;
+        this.worstRenderNanos = 0;
+    }
+    /**
+     * Starts the loop on a background thread
+     */
+    public void start(){
+        this.running = true;
+        Thread thread = new Thread(this, "render-loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    /**
+     * Stops the loop after the frame being drawn
+     */
+    public void stop(){
+        this.running = false;
+    }
+    /**
+     * Draws requested frames once per tick until stopped
+     */
+    public void run(){
+        long nextTick = System.nanoTime();
+        while(this.running){
+            if(this.view.takeFrameRequest()){
+                long start = System.nanoTime();
+                this.view.renderFrame();
+                long renderNanos = System.nanoTime() - start;
+                this.frameCount++;
+                this.totalRenderNanos += renderNanos;
+                this.worstRenderNanos = Math.max(this.worstRenderNanos, renderNanos);
+            }
+            nextTick += this.frameNanos;
+            long sleepNanos = nextTick - System.nanoTime();
+            if(sleepNanos > 0){
+                LockSupport.parkNanos(sleepNanos);
+            } else {
+                //Running behind, the next tick is a frame from now instead of right away
+                nextTick = System.nanoTime();
+            }
+        }
+    }
+    /**
+     * Getter for the amount of frames drawn
+     */
+    public long getFrameCount(){
+        return this.frameCount;
+    }
+    /**
+     * Getter for the average time a frame took to draw in nanoseconds
+     */
+    public long getAverageRenderNanos(){
+        return this.frameCount == 0 ? 0 : this.totalRenderNanos / this.frameCount;
+    }
+    /**
+     * Getter for the longest a frame took to draw in nanoseconds
+     */
+    public long getWorstRenderNanos(){
+        return this.worstRenderNanos;
+    }
+}
@@ -0,0 +1,283 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+/**
+ * An append-only file of finished games, read back by the ReplayReader. A game is recorded as its seed,
+ * who went first, the winner, both hands as they were dealt and every play with the cards it captured,
+ * so it can be replayed into a TripleTriadModel or studied without replaying it.
+ * The file starts with HEADER_BYTES: the MAGIC int then the VERSION byte. Every game after that is
+ * <ul>
+ * <li>the length of the rest of the record as a varint</li>
+ * <li>the seed as a zigzag varint of its difference from the previous game's seed, the first game's from 0,
+ * so games dealt from consecutive seeds take a byte</li>
+ * <li>a byte holding the first player in bit 7, the winner in bits 4 to 6 (UNFINISHED if the game wasn't)
+ * and the amount of plays in bits 0 to 3</li>
+ * <li>Player 1's dealt hand then Player 2's, each card as its pool index byte and its packed ranks short</li>
+ * <li>a short per play: the hand index in bits 13 to 15, the board index in bits 9 to 12 and a bit
+ * for every cell the play captured in bits 0 to 8, the only cells whose owner the play changed</li>
+ * </ul>
+ * A 9 play game takes 51 bytes. Numbers are big endian. Only games on the standard 3 by 3 board can be recorded.
+ * Records are buffered and written in large blocks. A record torn by a crash is ignored by the reader
+ * and cut off the next time the log is opened for appending.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class ReplayLog implements Closeable
+{
+    /**
+     * The first 4 bytes of every replay log, "TTRL"
+     */
+    public static final int MAGIC = 0x5454524C;
+    /**
+     * The version of the record layout
+     */
+    public static final int VERSION = 1;
+    /**
+     * The bytes before the first record
+     */
+    public static final int HEADER_BYTES = 5;
+    /**
+     * The amount of cells on a board that can be recorded
+     */
+    public static final int CELLS = 9;
+    /**
+     * The winner recorded for a game that wasn't finished
+     */
+    public static final int UNFINISHED = 3;
+    /**
+     * The bytes of a recorded card
+     */
+    public static final int CARD_BYTES = 3;
+    /**
+     * The bytes of a recorded play
+     */
+    public static final int PLAY_BYTES = 2;
+    /**
+     * The largest record including its length
+     */
+    private static final int MAX_RECORD_BYTES = 1 + 10 + 1 + DealGenerator.CARDS_PER_DEAL * CARD_BYTES
+        + CELLS * PLAY_BYTES;
+    /**
+     * The bytes buffered before they are written to the file
+     */
+    private static final int BUFFER_BYTES = 64 * 1024;
+    /**
+     * The file being appended to
+     */
+    private final FileChannel channel;
+    /**
+     * Records waiting to be written
+     */
+    private final ByteBuffer buffer;
+    /**
+     * Each player's hand rebuilt as it was dealt, indexed by owner id then slot, as DealGenerator card ints
+     */
+    private final int[][] dealtHands;
+    /**
+     * Receives the cells captured by a play
+     */
+    private final int[] flips;
+    /**
+     * The seed of the last game recorded, the next seed is written as a difference from it
+     */
+    private long previousSeed;
+    /**
+     * The amount of games in the log
+     */
+    private long gameCount;
+
+    /**
+     * Opens a replay log for appending, creating it if it doesn't exist
+     * @throws IOException if the file can't be opened or isn't a replay log
+     */
+    public ReplayLog(String fileName) throws IOException
+    {
+        this.channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        this.dealtHands = new int[Owner.PLAYER_COUNT][DealGenerator.HAND_SIZE];
+        this.flips = new int[CELLS];
+        this.previousSeed = 0;
+        this.gameCount = 0;
+        if(this.channel.size() == 0){
+            this.buffer.putInt(MAGIC);
+            this.buffer.put((byte) VERSION);
+            flush();
+            return;
+        }
+        try {
+            ReplayReader reader = new ReplayReader(this.channel, fileName);
+            while(reader.next()){
+                this.previousSeed = reader.getSeed();
+            }
+            this.gameCount = reader.getGameIndex() + 1;
+            if(reader.getEnd() < this.channel.size()){
+                this.channel.truncate(reader.getEnd());
+            }
+            this.channel.position(reader.getEnd());
+        } catch(IOException e){
+            this.channel.close();
+            throw e;
+        }
+    }
+    /**
+     * Getter for the amount of games in the log, including the ones still buffered
+     */
+    public synchronized long getGameCount(){
+        return this.gameCount;
+    }
+    /**
+     * Records a game as it stands, usually once it is finished
+     * @throws IllegalArgumentException if the game isn't on the standard board
+     */
+    public synchronized void append(TripleTriadModel model) throws IOException{
+        Board board = model.getBoard();
+        if(board.getPlayedCards().length != CELLS){
+            throw new IllegalArgumentException("Only games on a 3 by 3 board can be recorded");
+        }
+        if(this.buffer.remaining() < MAX_RECORD_BYTES){
+            flush();
+        }
+        int playCount = board.getPlayCount();
+        int firstPlayer = model.getFirstPlayer();
+        int winner = model.getGameFinished() ? model.getCurrentWinner() : UNFINISHED;
+        rebuildDealtHands(model, firstPlayer);
+        int recordLength = varLongLength(zigzag(model.getSeed() - this.previousSeed)) + 1
+            + DealGenerator.CARDS_PER_DEAL * CARD_BYTES + playCount * PLAY_BYTES;
+        putVarLong(this.buffer, recordLength);
+        putVarLong(this.buffer, zigzag(model.getSeed() - this.previousSeed));
+        this.buffer.put((byte) ((firstPlayer << 7) | (winner << 4) | playCount));
+        for(int[] hand: this.dealtHands){
+            for(int card: hand){
+                this.buffer.put((byte) DealGenerator.cardIndexOf(card));
+                this.buffer.putShort((short) DealGenerator.ranksOf(card));
+            }
+        }
+        for(int play = 0; play < playCount; play++){
+            int flipMask = 0;
+            int flipCount = board.getPlayFlips(play, this.flips);
+            for(int i = 0; i < flipCount; i++){
+                flipMask |= 1 << this.flips[i];
+            }
+            this.buffer.putShort((short) encodePlay(model.getPlayHandIndex(play), board.getPlayIndex(play), flipMask));
+        }
+        this.previousSeed = model.getSeed();
+        this.gameCount++;
+    }
+    /**
+     * Rebuilds the hands as they were dealt by putting every played card back where it was played from,
+     * last play first, the way undo does
+     */
+    private void rebuildDealtHands(TripleTriadModel model, int firstPlayer){
+        int[] handSizes = new int[Owner.PLAYER_COUNT];
+        for(Player player: model.getPlayers()){
+            Hand hand = player.getHand();
+            int owner = player.getOwner();
+            for(int slot = 0; slot < hand.getHandSize(); slot++){
+                this.dealtHands[owner][slot] = encodeCard(hand.showCard(slot));
+            }
+            handSizes[owner] = hand.getHandSize();
+        }
+        Board board = model.getBoard();
+        for(int play = board.getPlayCount() - 1; play >= 0; play--){
+            int owner = play % 2 == 0 ? firstPlayer : Owner.opponent(firstPlayer);
+            int[] hand = this.dealtHands[owner];
+            int handIndex = model.getPlayHandIndex(play);
+            System.arraycopy(hand, handIndex, hand, handIndex + 1, handSizes[owner] - handIndex);
+            hand[handIndex] = encodeCard(board.getPlayCard(play));
+            handSizes[owner]++;
+        }
+    }
+    /**
+     * Packs a card into a DealGenerator card int
+     */
+    private static int encodeCard(Card card){
+        return DealGenerator.encodeCard(HiddenCardPool.indexOfName(card.getName()), card.getPackedRanks());
+    }
+    /**
+     * Packs a play into the short it is recorded as
+     */
+    public static int encodePlay(int handIndex, int boardIndex, int flipMask){
+        return (handIndex << 13) | (boardIndex << 9) | flipMask;
+    }
+    /**
+     * Maps a signed number to an unsigned one so small differences either way take few varint bytes
+     */
+    private static long zigzag(long value){
+        return (value << 1) ^ (value >> 63);
+    }
+    /**
+     * The bytes a number takes as a varint
+     */
+    private static int varLongLength(long value){
+        int length = 1;
+        while((value & ~0x7FL) != 0){
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+    /**
+     * Writes a number 7 bits at a time, lowest first, with the top bit of each byte set when another follows
+     */
+    private static void putVarLong(ByteBuffer out, long value){
+        while((value & ~0x7FL) != 0){
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+    /**
+     * Writes the buffered records to the file
+     */
+    public synchronized void flush() throws IOException{
+        this.buffer.flip();
+        while(this.buffer.hasRemaining()){
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+    /**
+     * Writes the buffered records and closes the file
+     */
+    public synchronized void close() throws IOException{
+        try {
+            flush();
+        } finally {
+            this.channel.close();
+        }
+    }
+    /**
+     * Records games of random plays, to build an archive to study or measure the reader with:
+     * java ReplayLog [file] [games] [seed]. Game i is dealt from seed + i.
+     */
+    public static void main(String[] args) throws IOException{
+        String fileName = args.length > 0 ? args[0] : "replays.ttr";
+        long games = args.length > 1 ? Long.parseLong(args[1]) : 1000000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        SplittableRandom random = new SplittableRandom(seed);
+        long start = System.nanoTime();
+        try(ReplayLog log = new ReplayLog(fileName)){
+            for(long game = 0; game < games; game++){
+                TripleTriadModel model = new TripleTriadModel(seed + game);
+                while(!model.getGameFinished()){
+                    int boardIndex = random.nextInt(CELLS);
+                    while(model.getBoard().getPlayedCardNode(boardIndex).getHasCard()){
+                        boardIndex = random.nextInt(CELLS);
+                    }
+                    model.playMove(random.nextInt(model.getActivePlayer().getHand().getHandSize()), boardIndex);
+                    model.toggleActivePlayer();
+                    model.updateGameState();
+                }
+                log.append(model);
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("Recorded %d games in %.2f s, %.0f games/s, %d games in %s%n",
+                games, elapsed / 1e9, games * 1e9 / elapsed, log.getGameCount(), fileName);
+        }
+    }
+}
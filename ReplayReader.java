@@ -0,0 +1,329 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+/**
+ * Reads a ReplayLog through a memory-mapped view of the file. The reader is a cursor over the records:
+ * next moves to the following game and the getters read the current one straight out of the mapping,
+ * so scanning an archive of millions of games creates no objects per game and lets the operating system
+ * page the file in. replay rebuilds the current game as a TripleTriadModel when a whole game is needed.
+ * Logs are mapped whole, so one can hold up to 2 GB, about 40 million games.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class ReplayReader
+{
+    /**
+     * The mapped file
+     */
+    private final MappedByteBuffer log;
+    /**
+     * The name of the file, used in error messages
+     */
+    private final String fileName;
+    /**
+     * Where the next record starts
+     */
+    private int position;
+    /**
+     * The index of the current game, -1 before the first
+     */
+    private long gameIndex;
+    /**
+     * The seed of the current game
+     */
+    private long seed;
+    /**
+     * The flags byte of the current game
+     */
+    private int flags;
+    /**
+     * Where the current game's dealt cards start
+     */
+    private int cardsStart;
+    /**
+     * Where the current game's plays start
+     */
+    private int playsStart;
+    /**
+     * Where the last varint read ends, -1 if it ran past its limit
+     */
+    private int varLongEnd;
+
+    /**
+     * Maps a replay log for reading
+     * @throws IOException if the file can't be read or isn't a replay log
+     */
+    public ReplayReader(String fileName) throws IOException
+    {
+        this(map(fileName), fileName);
+    }
+    /**
+     * Maps a replay log from a channel opened for reading, which can be closed afterwards
+     * @throws IOException if the file can't be read or isn't a replay log
+     */
+    public ReplayReader(FileChannel channel, String fileName) throws IOException
+    {
+        this(map(channel, fileName), fileName);
+    }
+    /**
+     * Creates a reader of a mapped log, checking its header
+     */
+    private ReplayReader(MappedByteBuffer log, String fileName) throws IOException
+    {
+        this.log = log;
+        this.fileName = fileName;
+        if(log.limit() < ReplayLog.HEADER_BYTES || log.getInt(0) != ReplayLog.MAGIC){
+            throw new IOException(fileName + " is not a replay log");
+        }
+        if(log.get(4) != ReplayLog.VERSION){
+            throw new IOException(fileName + " is replay log version " + log.get(4) + ", not " + ReplayLog.VERSION);
+        }
+        rewind();
+    }
+    /**
+     * Maps a whole file, closing it once mapped
+     */
+    private static MappedByteBuffer map(String fileName) throws IOException{
+        try(FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)){
+            return map(channel, fileName);
+        }
+    }
+    /**
+     * Maps the whole file of a channel
+     */
+    private static MappedByteBuffer map(FileChannel channel, String fileName) throws IOException{
+        if(channel.size() > Integer.MAX_VALUE){
+            throw new IOException(fileName + " is larger than a replay log can be");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    /**
+     * Moves back to before the first game
+     */
+    public void rewind(){
+        this.position = ReplayLog.HEADER_BYTES;
+        this.gameIndex = -1;
+        this.seed = 0;
+        this.flags = 0;
+    }
+    /**
+     * Moves to the next game. Stops at the end of the log or at a record cut short by a crash.
+     * @return false if there is no next game
+     */
+    public boolean next(){
+        int limit = this.log.limit();
+        long recordLength = readVarLong(this.position, limit);
+        int recordStart = this.varLongEnd;
+        if(recordStart < 0 || recordLength > limit - recordStart){
+            return false;
+        }
+        int recordEnd = (int) (recordStart + recordLength);
+        long seedDelta = readVarLong(recordStart, recordEnd);
+        int flagsAt = this.varLongEnd;
+        if(flagsAt < 0 || flagsAt >= recordEnd){
+            return false;
+        }
+        this.seed += (seedDelta >>> 1) ^ -(seedDelta & 1);
+        this.flags = this.log.get(flagsAt) & 0xFF;
+        this.cardsStart = flagsAt + 1;
+        this.playsStart = this.cardsStart + DealGenerator.CARDS_PER_DEAL * ReplayLog.CARD_BYTES;
+        this.position = recordEnd;
+        this.gameIndex++;
+        return true;
+    }
+    /**
+     * Moves to a game by its index, reading past the games before it
+     * @return false if the log has fewer games
+     */
+    public boolean seek(long game){
+        if(game <= this.gameIndex){
+            rewind();
+        }
+        while(this.gameIndex < game){
+            if(!next()){
+                return false;
+            }
+        }
+        return true;
+    }
+    /**
+     * Reads a varint and sets varLongEnd to where it ends, or to -1 if it runs past the limit
+     */
+    private long readVarLong(int at, int limit){
+        long value = 0;
+        for(int shift = 0; at < limit && shift < 64; shift += 7){
+            int b = this.log.get(at++);
+            value |= (long) (b & 0x7F) << shift;
+            if((b & 0x80) == 0){
+                this.varLongEnd = at;
+                return value;
+            }
+        }
+        this.varLongEnd = -1;
+        return 0;
+    }
+    /**
+     * Getter for the index of the current game in the log, -1 before the first
+     */
+    public long getGameIndex(){
+        return this.gameIndex;
+    }
+    /**
+     * Getter for where the last game read ends, the end of the valid part of the log once next returns false
+     */
+    public int getEnd(){
+        return this.position;
+    }
+    /**
+     * Getter for the seed the current game was dealt from
+     */
+    public long getSeed(){
+        return this.seed;
+    }
+    /**
+     * Getter for the owner id of the player who went first
+     */
+    public int getFirstPlayer(){
+        return this.flags >>> 7;
+    }
+    /**
+     * Getter for the owner id of the winner, Owner.NEUTRAL for a draw or ReplayLog.UNFINISHED
+     */
+    public int getWinner(){
+        return (this.flags >>> 4) & 0x7;
+    }
+    /**
+     * Getter for the amount of plays made
+     */
+    public int getPlayCount(){
+        return this.flags & 0xF;
+    }
+    /**
+     * Reads a dealt card as a DealGenerator card int
+     * @param owner the owner id of the player dealt the card
+     * @param slot the card's index in the hand as it was dealt
+     */
+    public int getDealtCard(int owner, int slot){
+        int at = this.cardsStart + (owner * DealGenerator.HAND_SIZE + slot) * ReplayLog.CARD_BYTES;
+        return DealGenerator.encodeCard(this.log.get(at) & 0xFF, this.log.getShort(at + 1) & 0xFFFF);
+    }
+    /**
+     * Reads a play as the short it is recorded as
+     */
+    private int getPlay(int play){
+        return this.log.getShort(this.playsStart + play * ReplayLog.PLAY_BYTES) & 0xFFFF;
+    }
+    /**
+     * Getter for the hand index a play was made from
+     */
+    public int getPlayHandIndex(int play){
+        return getPlay(play) >>> 13;
+    }
+    /**
+     * Getter for the board index a play was made on
+     */
+    public int getPlayBoardIndex(int play){
+        return (getPlay(play) >>> 9) & 0xF;
+    }
+    /**
+     * Getter for a bit for every cell a play captured
+     */
+    public int getPlayFlips(int play){
+        return getPlay(play) & 0x1FF;
+    }
+    /**
+     * Rebuilds the current game as a TripleTriadModel with a number of its plays made.
+     * The rest can still be stepped through with the model's redo after undoing,
+     * or a replay with every play can be undone back to the start.
+     * @throws IllegalStateException if this version of the game deals the seed differently than it was recorded
+     */
+    public TripleTriadModel replay(int plays){
+        TripleTriadModel model = new TripleTriadModel(this.seed);
+        if(model.getFirstPlayer() != getFirstPlayer() || !dealtHandsMatch(model)){
+            throw new IllegalStateException("Game " + this.gameIndex + " of " + this.fileName
+                + " was dealt differently than this version of the game deals seed " + this.seed);
+        }
+        for(int play = 0; play < plays; play++){
+            if(!model.playMove(getPlayHandIndex(play), getPlayBoardIndex(play))){
+                throw new IllegalStateException("Play " + play + " of game " + this.gameIndex + " of "
+                    + this.fileName + " can't be made");
+            }
+            model.toggleActivePlayer();
+            model.updateGameState();
+        }
+        return model;
+    }
+    /**
+     * Checks if a model was dealt the recorded hands
+     */
+    private boolean dealtHandsMatch(TripleTriadModel model){
+        for(Player player: model.getPlayers()){
+            Hand hand = player.getHand();
+            for(int slot = 0; slot < hand.getHandSize(); slot++){
+                int card = getDealtCard(player.getOwner(), slot);
+                if(hand.showCard(slot).getPackedRanks() != DealGenerator.ranksOf(card)
+                    || !hand.showCard(slot).getName().equals(HiddenCardPool.nameOf(DealGenerator.cardIndexOf(card)))){
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    /**
+     * Scans a log and prints what its games have in common, or replays one game:
+     * java ReplayReader [file] [game]
+     */
+    public static void main(String[] args) throws IOException{
+        String fileName = args.length > 0 ? args[0] : "replays.ttr";
+        ReplayReader reader = new ReplayReader(fileName);
+        if(args.length > 1){
+            if(!reader.seek(Long.parseLong(args[1]))){
+                System.out.println(fileName + " has no game " + args[1]);
+                return;
+            }
+            System.out.println("Game " + reader.getGameIndex() + ", seed " + reader.getSeed() + ", "
+                + Owner.nameOf(reader.getFirstPlayer()) + " first");
+            for(int play = 0; play < reader.getPlayCount(); play++){
+                System.out.println("  hand " + reader.getPlayHandIndex(play) + " to " + reader.getPlayBoardIndex(play)
+                    + " captures " + Integer.bitCount(reader.getPlayFlips(play)));
+            }
+            TripleTriadModel model = reader.replay(reader.getPlayCount());
+            int[] scores = model.getScores();
+            System.out.println("Replayed: " + scores[0] + " to " + scores[1] + ", recorded winner "
+                + (reader.getWinner() == ReplayLog.UNFINISHED ? "none" : Owner.nameOf(reader.getWinner())));
+            return;
+        }
+        long[] wins = new long[ReplayLog.UNFINISHED + 1];
+        long firstPlayerWins = 0;
+        long plays = 0;
+        long captures = 0;
+        long[] cornerOpenings = new long[2];
+        long start = System.nanoTime();
+        while(reader.next()){
+            int winner = reader.getWinner();
+            wins[winner]++;
+            if(winner == reader.getFirstPlayer()){
+                firstPlayerWins++;
+            }
+            for(int play = 0; play < reader.getPlayCount(); play++){
+                captures += Integer.bitCount(reader.getPlayFlips(play));
+            }
+            plays += reader.getPlayCount();
+            if(reader.getPlayCount() > 0){
+                int opening = reader.getPlayBoardIndex(0);
+                cornerOpenings[opening == 0 || opening == 2 || opening == 6 || opening == 8 ? 0 : 1]++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long games = reader.getGameIndex() + 1;
+        System.out.printf("%d games (%d bytes) scanned in %.1f ms, %.1fM games/s%n", games, reader.getEnd(),
+            elapsed / 1e6, games * 1e3 / Math.max(1, elapsed));
+        System.out.printf("Player 1 wins %d, Player 2 wins %d, draws %d, unfinished %d, first player wins %.1f%%%n",
+            wins[Owner.PLAYER_ONE], wins[Owner.PLAYER_TWO], wins[Owner.NEUTRAL], wins[ReplayLog.UNFINISHED],
+            100.0 * firstPlayerWins / Math.max(1, games));
+        System.out.printf("%.2f captures per play, %.1f%% of games opened in a corner%n",
+            (double) captures / Math.max(1, plays), 100.0 * cornerOpenings[0] / Math.max(1, games));
+    }
+}
@@ -0,0 +1,38 @@
+import java.util.SplittableRandom;
+/**
+ * Plays the best move found by an AlphaBetaSearch to a fixed depth
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class SearchPolicy implements MovePolicy
+{
+    /**
+     * The search, one per policy since searches aren't thread safe
+     */
+    private final AlphaBetaSearch search;
+    /**
+     * How many plies ahead to search
+     */
+    private final int depth;
+
+    /**
+     * Creates a policy searching a fixed amount of plies ahead
+     */
+    public SearchPolicy(int depth)
+    {
+        this.search = new AlphaBetaSearch();
+        this.depth = depth;
+    }
+    /**
+     * Picks the best move of a fixed depth search, the random source is not used
+     */
+    public int chooseMove(GamePosition position, SplittableRandom random){
+        return this.search.search(position, this.depth, 0).getBestMove();
+    }
+    /**
+     * The name used on the command line
+     */
+    public String toString(){
+        return "search" + this.depth;
+    }
+}
@@ -0,0 +1,97 @@
+
+/**
+ * The outcome of searching a GamePosition: the best move found,
+ * its score and how much work it took to find it.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class SearchResult
+{
+    /**
+     * The best move found, packed as in GamePosition. -1 if the position had no moves.
+     */
+    private final int bestMove;
+    /**
+     * The score of the best move from the point of view of the player to move
+     */
+    private final int score;
+    /**
+     * The deepest fully searched depth in plies
+     */
+    private final int depth;
+    /**
+     * The amount of positions visited
+     */
+    private final long nodes;
+    /**
+     * How long the search took in nanoseconds
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Creates a search result
+     */
+    public SearchResult(int bestMove, int score, int depth, long nodes, long elapsedNanos)
+    {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+    /**
+     * Getter for the packed best move
+     */
+    public int getBestMove(){
+        return this.bestMove;
+    }
+    /**
+     * Getter for the hand index of the best move
+     */
+    public int getHandIndex(){
+        return GamePosition.moveSlot(this.bestMove);
+    }
+    /**
+     * Getter for the board index of the best move
+     */
+    public int getBoardIndex(){
+        return GamePosition.moveCell(this.bestMove);
+    }
+    /**
+     * Getter for the score of the best move
+     */
+    public int getScore(){
+        return this.score;
+    }
+    /**
+     * Getter for the deepest fully searched depth
+     */
+    public int getDepth(){
+        return this.depth;
+    }
+    /**
+     * Getter for the amount of positions visited
+     */
+    public long getNodes(){
+        return this.nodes;
+    }
+    /**
+     * Getter for how long the search took in nanoseconds
+     */
+    public long getElapsedNanos(){
+        return this.elapsedNanos;
+    }
+    /**
+     * Positions visited per second of search
+     */
+    public long getNodesPerSecond(){
+        return this.elapsedNanos == 0 ? 0 : this.nodes * 1000000000L / this.elapsedNanos;
+    }
+    /**
+     * Converts the result to a string like "hand 2 -> board 4 score 1 depth 9 nodes 1234 (5000000 nps)"
+     */
+    public String toString(){
+        return "hand " + getHandIndex() + " -> board " + getBoardIndex() + " score " + getScore()
+            + " depth " + getDepth() + " nodes " + getNodes() + " (" + getNodesPerSecond() + " nps)";
+    }
+}
@@ -0,0 +1,93 @@
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+/**
+ * The sessions being played on a server, by id. Servers speaking different protocols can share
+ * a registry so their clients can join each other's sessions.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class SessionRegistry
+{
+    /**
+     * The sessions being played, by id
+     */
+    private final ConcurrentHashMap<Integer, GameSession> sessions;
+    /**
+     * The id given to the next session
+     */
+    private final AtomicInteger nextSessionId;
+    /**
+     * Where finished sessions are recorded, null to not record them
+     */
+    private final ReplayLog replayLog;
+
+    /**
+     * Creates an empty registry
+     */
+    public SessionRegistry()
+    {
+        this(null);
+    }
+    /**
+     * Creates an empty registry whose sessions are recorded to a replay log once finished
+     * @param replayLog the log, null to not record them
+     */
+    public SessionRegistry(ReplayLog replayLog)
+    {
+        this.sessions = new ConcurrentHashMap<Integer, GameSession>();
+        this.nextSessionId = new AtomicInteger(1);
+        this.replayLog = replayLog;
+    }
+    /**
+     * Creates an empty registry recording its finished sessions to a replay log file,
+     * which is written out and closed when the program exits
+     * @param fileName the log's file, null to not record sessions
+     */
+    public static SessionRegistry recordingTo(String fileName) throws IOException{
+        if(fileName == null){
+            return new SessionRegistry();
+        }
+        final ReplayLog replayLog = new ReplayLog(fileName);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                replayLog.close();
+            } catch(IOException e){
+                System.out.println("The replay log couldn't be written: " + e.getMessage());
+            }
+        }));
+        return new SessionRegistry(replayLog);
+    }
+    /**
+     * Getter for where finished sessions are recorded, null if they aren't
+     */
+    public ReplayLog getReplayLog(){
+        return this.replayLog;
+    }
+    /**
+     * Getter for the amount of sessions being played
+     */
+    public int getSessionCount(){
+        return this.sessions.size();
+    }
+    /**
+     * Creates a session dealt from a seed
+     */
+    public GameSession createSession(long seed){
+        GameSession session = new GameSession(this.nextSessionId.getAndIncrement(), seed, this.replayLog);
+        this.sessions.put(session.getId(), session);
+        return session;
+    }
+    /**
+     * Gets a session by id, null if there is no such session
+     */
+    public GameSession getSession(int id){
+        return this.sessions.get(id);
+    }
+    /**
+     * Forgets a session nobody is seated at anymore
+     */
+    public void removeSession(GameSession session){
+        this.sessions.remove(session.getId(), session);
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * A connection seated at a GameSession. The session calls these methods to tell the player what happened,
+ * and each kind of connection encodes them in its own protocol: text lines for GameConnection
+ * and MoveProtocol frames for BinaryGameServer.
+ * Calls are made while the session's lock is held, so they only queue or buffer what they send and never wait
+ * on the client.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public interface SessionSeat
+{
+    /**
+     * The connection took a seat at a session
+     * @param seat the owner id the connection plays as
+     * @param seed the seed the match was dealt from
+     */
+    void seated(int sessionId, int seat, long seed);
+    /**
+     * Every seat is taken and the match can start
+     * @param turn the owner id of the player who goes first
+     */
+    void ready(int turn);
+    /**
+     * A move was played
+     * @param flips the board indexes the move captured, only the first flipCount are valid
+     */
+    void played(int seat, int handIndex, int boardIndex, int[] flips, int flipCount);
+    /**
+     * The board is full
+     * @param winner the owner id of the winner, Owner.NEUTRAL for a draw
+     */
+    void gameOver(int winner);
+    /**
+     * The player in a seat left the session
+     */
+    void left(int seat);
+}
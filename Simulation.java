@@ -0,0 +1,156 @@
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+/**
+ * Plays complete games without a view as fast as possible and gathers SimulationStats.
+ * Games follow the same rules as the Swing game: each player is dealt 5 cards from their own
+ * pool of the 12 monsters (ranks generated like HiddenCardPool), a random player goes first,
+ * cards are played and captured like Board.playCardAt, and the scores are counted like
+ * TripleTriadModel.updateScores when the board is full. Games are played on a GamePosition
+ * so nothing is allocated per move.
+ * Each player's moves come from a MovePolicy. Games are split into batches that run on a
+ * thread pool, and every batch gets its own random source split from the seed in order,
+ * so the same seed gives the same stats no matter how many threads are used.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class Simulation
+{
+    /**
+     * Games played by one batch
+     */
+    private static final int BATCH_SIZE = 10000;
+    /**
+     * Creates the policy of Player 1, called once per batch
+     */
+    private final Supplier<MovePolicy> playerOnePolicy;
+    /**
+     * Creates the policy of Player 2, called once per batch
+     */
+    private final Supplier<MovePolicy> playerTwoPolicy;
+    /**
+     * The amount of threads to play on
+     */
+    private final int threads;
+
+    /**
+     * Creates a simulation
+     * @param playerOnePolicy creates Player 1's policy
+     * @param playerTwoPolicy creates Player 2's policy
+     * @param threads the amount of threads to play on
+     */
+    public Simulation(Supplier<MovePolicy> playerOnePolicy, Supplier<MovePolicy> playerTwoPolicy, int threads)
+    {
+        this.playerOnePolicy = playerOnePolicy;
+        this.playerTwoPolicy = playerTwoPolicy;
+        this.threads = threads;
+    }
+    /**
+     * Plays a number of games and returns their combined stats
+     */
+    public SimulationStats run(long games, long seed) throws Exception{
+        long start = System.nanoTime();
+        SplittableRandom seedRandom = new SplittableRandom(seed);
+        ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+        ArrayList<Future<SimulationStats>> batches = new ArrayList<Future<SimulationStats>>();
+        try{
+            for(long played = 0; played < games; played += BATCH_SIZE){
+                final long batchGames = Math.min(BATCH_SIZE, games - played);
+                final SplittableRandom batchRandom = seedRandom.split();
+                batches.add(pool.submit(() -> playBatch(batchGames, batchRandom)));
+            }
+            SimulationStats stats = new SimulationStats();
+            for(Future<SimulationStats> batch: batches){
+                stats.add(batch.get());
+            }
+            stats.setElapsedNanos(System.nanoTime() - start);
+            return stats;
+        } finally {
+            pool.shutdown();
+        }
+    }
+    /**
+     * Plays a batch of games on one thread
+     */
+    private SimulationStats playBatch(long games, SplittableRandom random){
+        MovePolicy[] policies = {this.playerOnePolicy.get(), this.playerTwoPolicy.get()};
+        SimulationStats stats = new SimulationStats();
+        int[] pool = new int[HiddenCardPool.getPoolSize()];
+        for(long i = 0; i < games; i++){
+            playGame(policies, pool, random, stats);
+        }
+        return stats;
+    }
+    /**
+     * Deals and plays one complete game and records it
+     * @param policies the policies of Player 1 and Player 2
+     * @param pool a buffer the size of the card pool
+     * @return the final score of Player 1 minus the final score of Player 2
+     */
+    public static int playGame(MovePolicy[] policies, int[] pool, SplittableRandom random, SimulationStats stats){
+        int[] cards = new int[DealGenerator.CARDS_PER_DEAL];
+        DealGenerator.dealHand(random, pool, cards, 0);
+        DealGenerator.dealHand(random, pool, cards, DealGenerator.HAND_SIZE);
+        int firstPlayer = random.nextInt(Owner.PLAYER_COUNT);
+        GamePosition position = DealGenerator.toPosition(cards, 0, firstPlayer);
+        int captures = 0;
+        while(!position.isFinished()){
+            int move = policies[position.getSideToMove()].chooseMove(position, random);
+            captures += Long.bitCount(position.makeMove(move));
+        }
+        int lead = position.score(Owner.PLAYER_ONE) - position.score(Owner.PLAYER_TWO);
+        int winner = lead > 0 ? Owner.PLAYER_ONE : lead < 0 ? Owner.PLAYER_TWO : -1;
+        stats.recordGame(winner, firstPlayer, captures);
+        return lead;
+    }
+    /**
+     * Creates a policy supplier from its command line name: random, greedy or searchN (N plies deep)
+     */
+    public static Supplier<MovePolicy> policyNamed(String name){
+        if(name.equals("random")){
+            return () -> new RandomPolicy();
+        }
+        if(name.equals("greedy")){
+            return () -> new GreedyPolicy();
+        }
+        if(name.startsWith("search")){
+            final int depth = name.length() > 6 ? parseDepth(name) : 2;
+            return () -> new SearchPolicy(depth);
+        }
+        throw new IllegalArgumentException("Unknown policy " + name + ", use random, greedy or searchN");
+    }
+    /**
+     * Reads the depth N of a searchN policy name
+     * @throws IllegalArgumentException if N isn't a whole number of at least 1 ply
+     */
+    private static int parseDepth(String name){
+        String digits = name.substring(6);
+        int depth;
+        try {
+            depth = Integer.parseInt(digits);
+        } catch(NumberFormatException e){
+            depth = 0;
+        }
+        if(depth < 1){
+            throw new IllegalArgumentException("Bad search depth in " + name + ", searchN needs N of at least 1");
+        }
+        return depth;
+    }
+    /**
+     * Runs a simulation from the command line:
+     * java Simulation [games] [Player 1 policy] [Player 2 policy] [threads] [seed]
+     */
+    public static void main(String[] args) throws Exception{
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1000000;
+        String playerOne = args.length > 1 ? args[1] : "random";
+        String playerTwo = args.length > 2 ? args[2] : "random";
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        Simulation simulation = new Simulation(policyNamed(playerOne), policyNamed(playerTwo), threads);
+        System.out.println("Player 1 " + playerOne + " vs Player 2 " + playerTwo + " on " + threads + " threads");
+        System.out.println(simulation.run(games, seed));
+    }
+}
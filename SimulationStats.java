@@ -0,0 +1,144 @@
+
+/**
+ * Totals gathered from simulated games: who won, how often the first player won
+ * and how many cards were captured. Stats from several threads are combined with add.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class SimulationStats
+{
+    /**
+     * Games played
+     */
+    private long games;
+    /**
+     * Games won by Player 1
+     */
+    private long playerOneWins;
+    /**
+     * Games won by Player 2
+     */
+    private long playerTwoWins;
+    /**
+     * Games won by whichever player went first
+     */
+    private long firstPlayerWins;
+    /**
+     * Games won by whichever player went second
+     */
+    private long secondPlayerWins;
+    /**
+     * Cards captured over all games
+     */
+    private long captures;
+    /**
+     * Time spent playing in nanoseconds, the longest of the combined stats
+     */
+    private long elapsedNanos;
+
+    /**
+     * Creates empty stats
+     */
+    public SimulationStats()
+    {
+        this.games = 0;
+    }
+    /**
+     * Records a finished game
+     * @param winner the owner id of the winner, -1 for a draw
+     * @param firstPlayer the owner id of the player who went first
+     * @param gameCaptures the cards captured during the game
+     */
+    public void recordGame(int winner, int firstPlayer, int gameCaptures){
+        this.games++;
+        this.captures += gameCaptures;
+        if(winner == Owner.PLAYER_ONE){
+            this.playerOneWins++;
+        } else if(winner == Owner.PLAYER_TWO){
+            this.playerTwoWins++;
+        }
+        if(winner == firstPlayer){
+            this.firstPlayerWins++;
+        } else if(winner >= 0){
+            this.secondPlayerWins++;
+        }
+    }
+    /**
+     * Adds the totals of other stats to these
+     */
+    public void add(SimulationStats that){
+        this.games += that.games;
+        this.playerOneWins += that.playerOneWins;
+        this.playerTwoWins += that.playerTwoWins;
+        this.firstPlayerWins += that.firstPlayerWins;
+        this.secondPlayerWins += that.secondPlayerWins;
+        this.captures += that.captures;
+        this.elapsedNanos = Math.max(this.elapsedNanos, that.elapsedNanos);
+    }
+    /**
+     * Setter for the time spent playing
+     */
+    public void setElapsedNanos(long elapsedNanos){
+        this.elapsedNanos = elapsedNanos;
+    }
+    /**
+     * Getter for the games played
+     */
+    public long getGames(){
+        return this.games;
+    }
+    /**
+     * Getter for the games won by Player 1
+     */
+    public long getPlayerOneWins(){
+        return this.playerOneWins;
+    }
+    /**
+     * Getter for the games won by Player 2
+     */
+    public long getPlayerTwoWins(){
+        return this.playerTwoWins;
+    }
+    /**
+     * Getter for the drawn games
+     */
+    public long getDraws(){
+        return this.games - this.playerOneWins - this.playerTwoWins;
+    }
+    /**
+     * The share of games won by a player
+     */
+    public double getWinRate(int owner){
+        long wins = owner == Owner.PLAYER_ONE ? this.playerOneWins : this.playerTwoWins;
+        return this.games == 0 ? 0 : (double) wins / this.games;
+    }
+    /**
+     * How much more often the first player wins than the second, as a share of all games
+     */
+    public double getFirstPlayerAdvantage(){
+        return this.games == 0 ? 0 : (double) (this.firstPlayerWins - this.secondPlayerWins) / this.games;
+    }
+    /**
+     * The average amount of cards captured per game
+     */
+    public double getAverageCaptures(){
+        return this.games == 0 ? 0 : (double) this.captures / this.games;
+    }
+    /**
+     * Games played per minute of simulation
+     */
+    public long getGamesPerMinute(){
+        return this.elapsedNanos == 0 ? 0 : this.games * 60000000000L / this.elapsedNanos;
+    }
+    /**
+     * Converts the stats to a readable summary
+     */
+    public String toString(){
+        return String.format("%d games (%d per minute)%n"
+            + "Player 1 wins %.2f%%, Player 2 wins %.2f%%, draws %.2f%%%n"
+            + "first player advantage %+.2f%%, average captures %.3f",
+            this.games, getGamesPerMinute(), getWinRate(Owner.PLAYER_ONE) * 100,
+            getWinRate(Owner.PLAYER_TWO) * 100, this.games == 0 ? 0 : getDraws() * 100.0 / this.games,
+            getFirstPlayerAdvantage() * 100, getAverageCaptures());
+    }
+}
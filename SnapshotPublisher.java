@@ -0,0 +1,54 @@
+import java.util.BitSet;
+/**
+ * Builds the GameSnapshots of a model on the game logic thread. It listens to the model's Board so each
+ * snapshot only copies the cells that changed since the last one was published.
+ * Only used by the thread changing the model.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class SnapshotPublisher implements BoardListener
+{
+    /**
+     * The model copied
+     */
+    private final TripleTriadModel model;
+    /**
+     * The cells changed since the last snapshot
+     */
+    private final BitSet changedCells;
+    /**
+     * The last snapshot built
+     */
+    private GameSnapshot published;
+
+    /**
+     * Starts listening to a model's board, starting from a copy of the whole model
+     */
+    public SnapshotPublisher(TripleTriadModel model)
+    {
+        this.model = model;
+        this.changedCells = new BitSet(model.getBoard().getPlayedCards().length);
+        this.published = new GameSnapshot(model);
+        model.getBoard().addBoardListener(this);
+    }
+    /**
+     * Remembers a cell changed for the next snapshot, called by the board
+     */
+    public void cellChanged(int boardIndex){
+        this.changedCells.set(boardIndex);
+    }
+    /**
+     * Builds a snapshot of the model as it is now
+     */
+    public GameSnapshot publish(){
+        this.published = new GameSnapshot(this.model, this.published, this.changedCells);
+        this.changedCells.clear();
+        return this.published;
+    }
+    /**
+     * Getter for the last snapshot built
+     */
+    public GameSnapshot getPublished(){
+        return this.published;
+    }
+}
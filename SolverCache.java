@@ -0,0 +1,184 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+/**
+ * The memo of an ExactSolver: the bounds known on the exact value of solved positions,
+ * keyed by their Zobrist hash. Stored in a ByteBuffer so the same table can live on the heap
+ * or in a memory-mapped file that later runs open again and keep solving from.
+ * Entries are 16 bytes: the key, the lower and upper bound of the value and the best move.
+ * Collisions are resolved by probing a few slots, after which the first slot is overwritten,
+ * so a full cache forgets positions instead of growing.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class SolverCache
+{
+    /**
+     * Marks a cache file, "TTSC" in ASCII
+     */
+    private static final int MAGIC = 0x54545343;
+    /**
+     * Bytes before the first entry: magic, capacity and spare room
+     */
+    private static final int HEADER_BYTES = 16;
+    /**
+     * Bytes used by one entry
+     */
+    private static final int ENTRY_BYTES = 16;
+    /**
+     * How many slots are probed for a key
+     */
+    private static final int PROBES = 4;
+    /**
+     * The entries, after the header
+     */
+    private final ByteBuffer buffer;
+    /**
+     * Capacity - 1, the capacity is a power of two
+     */
+    private final int slotMask;
+    /**
+     * The file channel of a mapped cache, null for a heap cache
+     */
+    private final RandomAccessFile file;
+
+    /**
+     * Creates an empty cache on the heap
+     * @param capacity the amount of entries, rounded down to a power of two
+     */
+    public SolverCache(int capacity)
+    {
+        this(ByteBuffer.allocate(HEADER_BYTES + roundCapacity(capacity) * ENTRY_BYTES), null);
+        writeHeader();
+    }
+    /**
+     * Wraps a buffer whose header is written or checked by the caller
+     */
+    private SolverCache(ByteBuffer buffer, RandomAccessFile file)
+    {
+        this.buffer = buffer;
+        this.file = file;
+        this.slotMask = (buffer.capacity() - HEADER_BYTES) / ENTRY_BYTES - 1;
+    }
+    /**
+     * Opens a cache backed by a memory-mapped file, creating the file if it doesn't exist.
+     * An existing file keeps its entries and capacity so solved positions carry over between runs.
+     * @param capacity the amount of entries of a new file, rounded down to a power of two
+     * @throws IOException if the file can't be mapped or isn't a cache file
+     */
+    public static SolverCache open(String fileName, int capacity) throws IOException{
+        RandomAccessFile file = new RandomAccessFile(fileName, "rw");
+        boolean existing = file.length() > 0;
+        long size = existing ? file.length() : HEADER_BYTES + (long) roundCapacity(capacity) * ENTRY_BYTES;
+        MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        SolverCache cache = new SolverCache(buffer, file);
+        if(!existing){
+            cache.writeHeader();
+        } else if(buffer.getInt(0) != MAGIC || buffer.getInt(4) != cache.getCapacity()){
+            file.close();
+            throw new IOException(fileName + " is not a solver cache");
+        }
+        return cache;
+    }
+    /**
+     * Rounds a capacity down to a power of two of at least 1
+     */
+    private static int roundCapacity(int capacity){
+        return Integer.highestOneBit(Math.max(1, Math.min(capacity, (Integer.MAX_VALUE - HEADER_BYTES) / ENTRY_BYTES)));
+    }
+    /**
+     * Writes the magic number and capacity
+     */
+    private void writeHeader(){
+        this.buffer.putInt(0, MAGIC);
+        this.buffer.putInt(4, getCapacity());
+    }
+    /**
+     * Getter for the amount of entries the cache can hold
+     */
+    public int getCapacity(){
+        return this.slotMask + 1;
+    }
+    /**
+     * Finds the entry of a key
+     * @return the byte offset of the entry, or -1 if the key isn't cached
+     */
+    public int find(long key){
+        long stored = storedKey(key);
+        int slot = (int) (key ^ (key >>> 32)) & this.slotMask;
+        for(int i = 0; i < PROBES; i++){
+            int offset = HEADER_BYTES + ((slot + i) & this.slotMask) * ENTRY_BYTES;
+            if(this.buffer.getLong(offset) == stored){
+                return offset;
+            }
+        }
+        return -1;
+    }
+    /**
+     * The lower bound on the value of the entry at an offset
+     */
+    public int getLower(int offset){
+        return this.buffer.get(offset + 8);
+    }
+    /**
+     * The upper bound on the value of the entry at an offset
+     */
+    public int getUpper(int offset){
+        return this.buffer.get(offset + 9);
+    }
+    /**
+     * The best move of the entry at an offset, -1 if none is known
+     */
+    public int getBestMove(int offset){
+        return this.buffer.getShort(offset + 10);
+    }
+    /**
+     * Stores the bounds on a position's value, narrowing the bounds already stored for it
+     */
+    public void store(long key, int lower, int upper, int bestMove){
+        int offset = find(key);
+        if(offset >= 0){
+            lower = Math.max(lower, getLower(offset));
+            upper = Math.min(upper, getUpper(offset));
+            if(bestMove < 0){
+                bestMove = getBestMove(offset);
+            }
+        } else {
+            offset = freeSlot(key);
+        }
+        this.buffer.putLong(offset, storedKey(key));
+        this.buffer.put(offset + 8, (byte) lower);
+        this.buffer.put(offset + 9, (byte) upper);
+        this.buffer.putShort(offset + 10, (short) bestMove);
+    }
+    /**
+     * Finds an empty slot among the probed ones, or the first probed slot to overwrite
+     */
+    private int freeSlot(long key){
+        int slot = (int) (key ^ (key >>> 32)) & this.slotMask;
+        for(int i = 0; i < PROBES; i++){
+            int offset = HEADER_BYTES + ((slot + i) & this.slotMask) * ENTRY_BYTES;
+            if(this.buffer.getLong(offset) == 0L){
+                return offset;
+            }
+        }
+        return HEADER_BYTES + slot * ENTRY_BYTES;
+    }
+    /**
+     * Keys are stored non-zero since a zero key marks an empty slot
+     */
+    private static long storedKey(long key){
+        return key == 0L ? 1L : key;
+    }
+    /**
+     * Writes a mapped cache to its file and closes it. Does nothing for a heap cache.
+     */
+    public void close() throws IOException{
+        if(this.file != null){
+            ((MappedByteBuffer) this.buffer).force();
+            this.file.close();
+        }
+    }
+}
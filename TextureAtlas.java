@@ -0,0 +1,241 @@
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+/**
+ * Packs a set of image files into one image with an index of where each one is, so the view keeps a single image
+ * instead of one per file. The size of every file is read from its header when the atlas is made, which is enough
+ * to lay the atlas out and answer getWidth and getHeight straight away. load then decodes the files in parallel
+ * in the background, each into its own region. Nothing is drawn from the atlas until every file is decoded,
+ * callers draw placeholders until isLoaded.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class TextureAtlas
+{
+    /**
+     * The width the regions are packed into, wide enough for the board and two cards
+     */
+    private static final int ATLAS_WIDTH = 1024;
+    /**
+     * The first bytes of every PNG file
+     */
+    private static final long PNG_SIGNATURE = 0x89504E470D0A1A0AL;
+    /**
+     * The directory the files are in
+     */
+    private final String directory;
+    /**
+     * The names of the files without their ".png"
+     */
+    private final String[] names;
+    /**
+     * Where each file is in the atlas by its name
+     */
+    private final HashMap<String, Rectangle> regions;
+    /**
+     * The packed images
+     */
+    private final BufferedImage atlas;
+    /**
+     * The amount of files not decoded yet
+     */
+    private final AtomicInteger remaining;
+    /**
+     * Set once every file is decoded, the decoded pixels are visible to any thread that reads it as true
+     */
+    private volatile boolean loaded;
+
+    /**
+     * Lays out an atlas of PNG files by reading their headers. Files that can't be read get an empty region.
+     * @param directory the directory the files are in, ending in a separator
+     * @param names the names of the files without their ".png", also the names they are drawn by
+     */
+    public TextureAtlas(String directory, String[] names)
+    {
+        this.directory = directory;
+        this.names = names.clone();
+        this.regions = new HashMap<String, Rectangle>();
+        this.remaining = new AtomicInteger(names.length);
+        this.loaded = names.length == 0;
+        for(String name: names){
+            Rectangle region = new Rectangle();
+            try {
+                readSize(fileOf(name), region);
+            } catch(IOException e){
+                System.out.println("Couldn't read " + fileOf(name) + ": " + e.getMessage());
+            }
+            this.regions.put(name, region);
+        }
+        this.atlas = new BufferedImage(ATLAS_WIDTH, Math.max(1, pack()), BufferedImage.TYPE_INT_ARGB);
+    }
+    /**
+     * Gets the file of an image
+     */
+    private File fileOf(String name){
+        return new File(this.directory + name + ".png");
+    }
+    /**
+     * Reads the width and height of an image into a region without decoding it.
+     * A PNG's size is read straight from its header, other formats ask ImageIO.
+     */
+    private static void readSize(File file, Rectangle region) throws IOException{
+        try(DataInputStream in = new DataInputStream(new FileInputStream(file))){
+            if(in.readLong() == PNG_SIGNATURE){
+                //The IHDR chunk's length and type come before its width and height
+                in.readLong();
+                region.width = in.readInt();
+                region.height = in.readInt();
+                return;
+            }
+        }
+        try(ImageInputStream in = ImageIO.createImageInputStream(file)){
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if(!readers.hasNext()){
+                throw new IOException("not an image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in);
+                region.width = reader.getWidth(0);
+                region.height = reader.getHeight(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+    /**
+     * Places the regions on shelves, tallest first, each shelf as tall as its first region
+     * @return the height of the atlas
+     */
+    private int pack(){
+        String[] byHeight = this.names.clone();
+        Arrays.sort(byHeight, new Comparator<String>(){
+            public int compare(String a, String b){
+                return regions.get(b).height - regions.get(a).height;
+            }
+        });
+        int shelfY = 0;
+        int shelfHeight = 0;
+        int x = 0;
+        for(String name: byHeight){
+            Rectangle region = this.regions.get(name);
+            if(region.width > ATLAS_WIDTH){
+                throw new IllegalArgumentException(name + " is wider than a texture atlas");
+            }
+            if(x + region.width > ATLAS_WIDTH){
+                shelfY += shelfHeight;
+                shelfHeight = 0;
+                x = 0;
+            }
+            region.x = x;
+            region.y = shelfY;
+            x += region.width;
+            shelfHeight = Math.max(shelfHeight, region.height);
+        }
+        return shelfY + shelfHeight;
+    }
+    /**
+     * Decodes every file on a pool of background threads and returns straight away
+     * @param threads the most files decoded at once
+     * @param onLoaded run on a background thread once every file is decoded, can be null
+     */
+    public void load(int threads, final Runnable onLoaded){
+        if(this.names.length == 0){
+            if(onLoaded != null){
+                onLoaded.run();
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, this.names.length)));
+        for(final String name: this.names){
+            executor.submit(() -> {
+                decode(name);
+                if(this.remaining.decrementAndGet() == 0){
+                    this.loaded = true;
+                    if(onLoaded != null){
+                        onLoaded.run();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+    }
+    /**
+     * Decodes a file into its region. Every file has its own region so files can be decoded at the same time.
+     */
+    private void decode(String name){
+        Rectangle region = this.regions.get(name);
+        try {
+            BufferedImage image = ImageIO.read(fileOf(name));
+            if(image == null){
+                throw new IOException("not an image");
+            }
+            int width = Math.min(region.width, image.getWidth());
+            int height = Math.min(region.height, image.getHeight());
+            int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+            this.atlas.getRaster().setDataElements(region.x, region.y, width, height, pixels);
+        } catch(IOException | RuntimeException e){
+            System.out.println("Couldn't load " + fileOf(name) + ": " + e.getMessage());
+        }
+    }
+    /**
+     * Getter for if every file is decoded
+     */
+    public boolean isLoaded(){
+        return this.loaded;
+    }
+    /**
+     * Draws an image with its top left corner at x, y. Draws nothing if it isn't in the atlas or the atlas
+     * isn't loaded.
+     * @return false if nothing was drawn
+     */
+    public boolean draw(Graphics g, String name, int x, int y){
+        Rectangle region = this.regions.get(name);
+        if(region == null || !this.loaded){
+            return false;
+        }
+        g.drawImage(this.atlas, x, y, x + region.width, y + region.height,
+            region.x, region.y, region.x + region.width, region.y + region.height, null);
+        return true;
+    }
+    /**
+     * Getter for the width of an image, known before it is decoded. 0 if it isn't in the atlas.
+     */
+    public int getWidth(String name){
+        Rectangle region = this.regions.get(name);
+        return region == null ? 0 : region.width;
+    }
+    /**
+     * Getter for the height of an image, known before it is decoded. 0 if it isn't in the atlas.
+     */
+    public int getHeight(String name){
+        Rectangle region = this.regions.get(name);
+        return region == null ? 0 : region.height;
+    }
+    /**
+     * Getter for the amount of images in the atlas
+     */
+    public int getImageCount(){
+        return this.names.length;
+    }
+    /**
+     * Getter for the image every file is packed into
+     */
+    public BufferedImage getImage(){
+        return this.atlas;
+    }
+}
@@ -0,0 +1,26 @@
+
+/**
+ * The ways the cells of a board can be connected to eachother.
+ * Used with the board dimensions to build the AdjacencyTable a board plays on.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public enum Topology
+{
+    /**
+     * The standard square board. Cells on a border have no neighbour past that border.
+     */
+    GRID,
+    /**
+     * A square board that wraps around, the top row is adjacent to the bottom row
+     * and the left column to the right column.
+     */
+    TORUS,
+    /**
+     * A board of hexagons in rows, where odd rows are shifted half a cell to the right.
+     * Each cell has up to 6 neighbours. Since cards have 4 sides the two upper
+     * diagonals compare the top rank, the two lower diagonals the bottom rank
+     * and the horizontal neighbours the left and right ranks.
+     */
+    HEX
+}
@@ -0,0 +1,165 @@
+import java.util.Arrays;
+/**
+ * A fixed-size hash table of searched positions keyed by their Zobrist hash.
+ * A search stores the score, depth, bound and best move of every position it finishes
+ * and looks them up again when another move order reaches the same position.
+ * The table is a flat long array sized from a memory budget. Entries are grouped in
+ * buckets of two: the first keeps the deepest result stored in the bucket and the
+ * second always takes the newest one, and results from older searches are replaced first.
+ * The table is lock-free and can be shared between search threads. Each entry is stored
+ * as (key XOR data, data), so an entry torn by two threads writing at once fails
+ * its key check and reads as a miss instead of returning the wrong position's data.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class TranspositionTable
+{
+    /**
+     * The score is exact
+     */
+    public static final int EXACT = 1;
+    /**
+     * The score is a lower bound, the search failed high
+     */
+    public static final int LOWER_BOUND = 2;
+    /**
+     * The score is an upper bound, the search failed low
+     */
+    public static final int UPPER_BOUND = 3;
+    /**
+     * Returned by probe when the position isn't in the table
+     */
+    public static final long MISS = 0L;
+    /**
+     * Bytes used by one entry, a checked key and its data
+     */
+    private static final int ENTRY_BYTES = 16;
+    /**
+     * Pairs of (key XOR data, data), four longs per bucket
+     */
+    private final long[] entries;
+    /**
+     * Bucket count - 1, the bucket count is a power of two
+     */
+    private final int bucketMask;
+    /**
+     * The search generation stored with new entries, entries from older generations are replaced first
+     */
+    private volatile int generation;
+
+    /**
+     * Creates a table using at most the given amount of memory
+     * @param memoryBytes the memory budget, rounded down to a power of two buckets
+     */
+    public TranspositionTable(long memoryBytes)
+    {
+        long buckets = Long.highestOneBit(Math.max(1L, memoryBytes / (2 * ENTRY_BYTES)));
+        buckets = Math.min(buckets, 1L << 27);
+        this.entries = new long[(int) buckets * 4];
+        this.bucketMask = (int) buckets - 1;
+        this.generation = 0;
+    }
+    /**
+     * Looks up a position
+     * @return the packed data of the position, or MISS. Read it with the data methods.
+     */
+    public long probe(long key){
+        int base = bucketIndex(key);
+        long[] entries = this.entries;
+        for(int i = base; i < base + 4; i += 2){
+            long data = entries[i + 1];
+            if((entries[i] ^ data) == key && data != MISS){
+                return data;
+            }
+        }
+        return MISS;
+    }
+    /**
+     * Stores the result of searching a position
+     * @param score the score from the point of view of the player to move
+     * @param depth the depth the position was searched to
+     * @param bound EXACT, LOWER_BOUND or UPPER_BOUND
+     * @param bestMove the best move found, -1 if none
+     */
+    public void store(long key, int score, int depth, int bound, int bestMove){
+        int base = bucketIndex(key);
+        long[] entries = this.entries;
+        long data = packData(score, depth, bound, bestMove, this.generation);
+        long deepData = entries[base + 1];
+        //Keep the deep entry unless this result is at least as deep, from a newer search, or the same position
+        boolean samePosition = (entries[base] ^ deepData) == key;
+        if(deepData == MISS || samePosition || depth >= dataDepth(deepData)
+        || dataGeneration(deepData) != (this.generation & 0xFF)){
+            entries[base] = key ^ data;
+            entries[base + 1] = data;
+        } else {
+            entries[base + 2] = key ^ data;
+            entries[base + 3] = data;
+        }
+    }
+    /**
+     * Starts a new search generation so entries from earlier searches are replaced first
+     */
+    public void newSearch(){
+        this.generation++;
+    }
+    /**
+     * Empties the table
+     */
+    public void clear(){
+        Arrays.fill(this.entries, 0L);
+    }
+    /**
+     * The amount of entries the table can hold
+     */
+    public int getCapacity(){
+        return this.entries.length / 2;
+    }
+    /**
+     * Maps a key to the first long of its bucket
+     */
+    private int bucketIndex(long key){
+        return ((int) (key ^ (key >>> 32)) & this.bucketMask) << 2;
+    }
+    /**
+     * Packs an entry's data into a long. The bound is never 0 so stored data is never MISS.
+     * Bits 0-15 score, 16-23 depth, 24-25 bound, 26-41 best move + 1, 42-49 generation.
+     */
+    private static long packData(int score, int depth, int bound, int bestMove, int generation){
+        return ((long) (score + 32768) & 0xFFFFL)
+            | ((long) depth & 0xFFL) << 16
+            | ((long) bound & 0x3L) << 24
+            | ((long) (bestMove + 1) & 0xFFFFL) << 26
+            | ((long) generation & 0xFFL) << 42;
+    }
+    /**
+     * The score of an entry's data
+     */
+    public static int dataScore(long data){
+        return (int) (data & 0xFFFFL) - 32768;
+    }
+    /**
+     * The depth of an entry's data
+     */
+    public static int dataDepth(long data){
+        return (int) ((data >>> 16) & 0xFFL);
+    }
+    /**
+     * The bound of an entry's data
+     */
+    public static int dataBound(long data){
+        return (int) ((data >>> 24) & 0x3L);
+    }
+    /**
+     * The best move of an entry's data, -1 if none
+     */
+    public static int dataMove(long data){
+        return (int) ((data >>> 26) & 0xFFFFL) - 1;
+    }
+    /**
+     * The search generation of an entry's data
+     */
+    private static int dataGeneration(long data){
+        return (int) ((data >>> 42) & 0xFFL);
+    }
+}
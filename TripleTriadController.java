@@ -1,10 +1,16 @@
 import java.awt.*;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.swing.JFrame;
 /**
  * Instantiates the Model and View classes
  * which instantiate all other classes.
  * Handles toggling turns between players and ending the game
  * when the board is full.
+ * Input is turned into commands run one at a time on a game logic thread, the only thread that reads or changes
+ * the model once the game starts. After each change it publishes a GameSnapshot for the view to draw, so the
+ * computer thinking or a slow rule never holds up the event dispatch thread or the render thread.
  *
  * @author (your name)
  * @version (a version number or a date)
@@ -15,8 +21,65 @@ public class TripleTriadController
     TripleTriadModel tripleTriadModel;
     TripleTriadView tripleTriadView;
     JFrame frame;
-    public static void main(String[] args){
-        TripleTriadController game = new TripleTriadController();
+    /**
+     * The computer opponent, null when both players click
+     */
+    ComputerPlayer computerPlayer;
+    /**
+     * Where finished games are recorded, null to not record them
+     */
+    ReplayLog replayLog;
+    /**
+     * Runs the commands that read or change the model in the order they are submitted
+     */
+    private final ExecutorService gameLogic;
+    /**
+     * Builds the snapshots of the model the view draws
+     */
+    private final SnapshotPublisher snapshots;
+    /**
+     * Starts the game. Passing "ai" makes Player 2 a computer opponent using alpha-beta search,
+     * passing "mcts" makes it one using Monte Carlo Tree Search.
+     * A number as the last argument is used as the seed the game is dealt from.
+     * Any other argument names a replay log that finished games are appended to.
+     * "replay file [game]" shows a recorded game at its start, Ctrl+Y and Ctrl+Z step through its plays.
+     */
+    public static void main(String[] args) throws IOException{
+        if(args.length > 1 && args[0].equals("replay")){
+            ReplayReader reader = new ReplayReader(args[1]);
+            long gameIndex = args.length > 2 ? Long.parseLong(args[2]) : 0;
+            if(!reader.seek(gameIndex)){
+                System.out.println(args[1] + " has no game " + gameIndex);
+                return;
+            }
+            TripleTriadModel model = reader.replay(reader.getPlayCount());
+            while(model.undo()){
+                //Back to the deal, the plays stay in the board's journal for redo
+            }
+            new TripleTriadController(model);
+            System.out.println("Replaying game " + gameIndex + " of " + args[1] + ", " + reader.getPlayCount()
+                + " plays. Ctrl+Y plays the next one, Ctrl+Z takes it back.");
+            return;
+        }
+        TripleTriadController game;
+        if(args.length > 0 && args[args.length - 1].matches("-?\\d+")){
+            game = new TripleTriadController(Long.parseLong(args[args.length - 1]));
+        } else {
+            game = new TripleTriadController();
+        }
+        if(args.length > 0 && args[0].equals("ai")){
+            game.setComputerPlayer(new ComputerPlayer(Owner.PLAYER_TWO, 5));
+        }
+        if(args.length > 0 && args[0].equals("mcts")){
+            int threads = Runtime.getRuntime().availableProcessors();
+            MonteCarloSearch search = new MonteCarloSearch(threads, 0, System.nanoTime());
+            game.setComputerPlayer(new ComputerPlayer(Owner.PLAYER_TWO, search, 50));
+        }
+        for(String arg: args){
+            if(!arg.equals("ai") && !arg.equals("mcts") && !arg.matches("-?\\d+")){
+                game.setReplayLog(new ReplayLog(arg));
+            }
+        }
         
 
         
@@ -26,25 +89,144 @@ public class TripleTriadController
      */
     public TripleTriadController()
     {
-       tripleTriadModel = new TripleTriadModel();
+       this(new TripleTriadModel());
+    }
+    /**
+     * Starts a game dealt from a seed
+     */
+    public TripleTriadController(long seed)
+    {
+       this(new TripleTriadModel(seed));
+    }
+    /**
+     * Starts the view and listeners for a model
+     */
+    public TripleTriadController(TripleTriadModel model)
+    {
+       tripleTriadModel = model;
+       System.out.println("Game seed: " + model.getSeed());
+       gameLogic = Executors.newSingleThreadExecutor(task -> {
+           Thread thread = new Thread(task, "game-logic");
+           thread.setDaemon(true);
+           return thread;
+       });
+       snapshots = new SnapshotPublisher(tripleTriadModel);
        tripleTriadView = new TripleTriadView(tripleTriadModel);
        frame = new JFrame("Triple Triad");
        frame.getContentPane().add(tripleTriadView);
        frame.setBackground(Color.green);
        GameListener gameListener = new GameListener(this);
        tripleTriadView.addMouseListener(gameListener);
+       tripleTriadView.addKeyListener(gameListener);
        frame.pack();
        frame.setVisible(true);
+       tripleTriadView.startActiveRendering();
+       tripleTriadView.requestFocus();
        
     }
 
+    /**
+     * Queues a command to run on the game logic thread after the ones before it. Input listeners call this
+     * instead of the handle methods so the event dispatch thread never waits on the game.
+     */
+    public void submit(Runnable command){
+        this.gameLogic.execute(command);
+    }
+    /**
+     * Makes a play if the click completes one, then lets the computer answer. Runs on the game logic thread.
+     */
     public void handleMouseClick(Point p){
-        boolean validPlayPossible = this.tripleTriadModel.attemptPlay(p);
-        if(validPlayPossible){
-            this.tripleTriadModel.play(p);
+        if(this.tripleTriadModel.play(p)){
+            this.tripleTriadModel.toggleActivePlayer();
+            this.tripleTriadModel.updateGameState();
+            publishSnapshot();
+            recordFinishedGame();
+            playComputerTurn();
+        }
+    }
+    /**
+     * Undoes the last play. Against the computer it keeps undoing until it is the human's turn again,
+     * but never undoes the computer's opening play. Runs on the game logic thread.
+     */
+    public void handleUndo(){
+        boolean undone = undoPlay();
+        while(undone && this.computerPlayer != null && this.computerPlayer.isTurn(this.tripleTriadModel)){
+            undone = undoPlay();
+        }
+        publishSnapshot();
+    }
+    /**
+     * Undoes the last play unless it is the computer's opening play, which would leave the computer to move
+     * with nothing left to undo
+     * @return if a play was undone
+     */
+    private boolean undoPlay(){
+        if(this.computerPlayer != null && this.tripleTriadModel.getBoard().getPlayCount() == 1
+        && this.tripleTriadModel.getFirstPlayer() == this.computerPlayer.getOwner()){
+            return false;
+        }
+        return this.tripleTriadModel.undo();
+    }
+    /**
+     * Redoes the last undone play. Against the computer it also redoes the computer's answer, and lets the
+     * computer play if the undone plays run out on its turn. Runs on the game logic thread.
+     */
+    public void handleRedo(){
+        boolean redone = this.tripleTriadModel.redo();
+        while(redone && this.computerPlayer != null && this.computerPlayer.isTurn(this.tripleTriadModel)){
+            redone = this.tripleTriadModel.redo();
+        }
+        publishSnapshot();
+        playComputerTurn();
+    }
+    /**
+     * Sets the computer opponent and lets it play if it goes first, on the game logic thread
+     */
+    public void setComputerPlayer(ComputerPlayer computerPlayer){
+        submit(() -> {
+            this.computerPlayer = computerPlayer;
+            playComputerTurn();
+        });
+    }
+    /**
+     * Sets where finished games are recorded, on the game logic thread
+     */
+    public void setReplayLog(ReplayLog replayLog){
+        submit(() -> this.replayLog = replayLog);
+    }
+    /**
+     * Hands the view a snapshot of the model as it is now
+     */
+    private void publishSnapshot(){
+        this.tripleTriadView.publish(this.snapshots.publish());
+    }
+    /**
+     * Appends the game to the replay log once a new play finishes it. Redoing back to the end
+     * of a game already recorded doesn't record it again.
+     */
+    private void recordFinishedGame(){
+        if(this.replayLog != null && this.tripleTriadModel.getGameFinished()){
+            try {
+                this.replayLog.append(this.tripleTriadModel);
+                this.replayLog.flush();
+            } catch(IOException e){
+                System.out.println("The game couldn't be recorded: " + e.getMessage());
+            }
+        }
+    }
+    /**
+     * Makes the computer opponent's play if there is one and it is its turn.
+     * It thinks on the game logic thread, the view keeps drawing the last snapshot meanwhile
+     * and input waits in the queue.
+     */
+    private void playComputerTurn(){
+        if(this.computerPlayer != null && this.computerPlayer.isTurn(this.tripleTriadModel)){
+            SearchResult result = this.computerPlayer.chooseMove(this.tripleTriadModel);
+            this.tripleTriadModel.playMove(result.getHandIndex(), result.getBoardIndex());
             this.tripleTriadModel.toggleActivePlayer();
             this.tripleTriadModel.updateGameState();
-            this.tripleTriadView.repaint();
+            publishSnapshot();
+            recordFinishedGame();
         }
     }
 }
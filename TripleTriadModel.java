@@ -1,4 +1,4 @@
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.awt.*;
 /**
  * Keeps track of the state of the game.
@@ -13,7 +13,7 @@ public class TripleTriadModel
 {   
     /**
      * The player's of the game. In a standard unmodified game
-     * this is two players Respectively "Player 1 and Player 2"
+     * this is two players Respectively "Player 1 and Player 2", indexed by their owner id
      */
     public Player[] players;
     /**
@@ -33,15 +33,29 @@ public class TripleTriadModel
     public boolean gameFinished;
     /**
      * Calculated based on score.
-     * Can be "Player 1 ", "Player 2 " or "Draw, nobody "
+     * The owner id of Player 1 or Player 2, or Owner.NEUTRAL for a draw
      */
-    public String currentWinner;
+    public int currentWinner;
     /**
      * An object that calculates if the clicks on a board are within the active player's hand
      * and on a valid spot on the board. This is used when playing a card from the hand
      * to the board by clicking both spots.
      */
     ClickState clickstate;
+    /**
+     * The hand index of the card used by each play on the board, so undone plays go back to the
+     * same spot in the hand and redone plays take the same card
+     */
+    private int[] playHandIndexes;
+    /**
+     * The seed the game was dealt from, a game built with the same seed deals the same cards and first player
+     */
+    private final long seed;
+    /**
+     * The game's only random source. Each player gets a split of it for their deck and
+     * the first turn is drawn from it, so nothing else creates a Random.
+     */
+    private final SplittableRandom random;
     
 
     /**
@@ -51,6 +65,16 @@ public class TripleTriadModel
      */
     public TripleTriadModel()
     {
+        this(new SplittableRandom().nextLong());
+    }
+    /**
+     * Constructs a game dealt from a seed, so simulations and replays can reproduce it
+     * @param seed the seed of the game's random source
+     */
+    public TripleTriadModel(long seed)
+    {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
         this.players = players;
         this.board = board;
         this.scores = scores;
@@ -58,7 +82,6 @@ public class TripleTriadModel
         this.gameFinished = false;
         buildTripleTriad();
         updateGameState();
-        randomizeFirstTurn();
         clickstate = new ClickState();
        
     }
@@ -69,6 +92,12 @@ public class TripleTriadModel
     public Board getBoard(){
         return this.board;
     }
+    /**
+     * Getter for the seed the game was dealt from
+     */
+    public long getSeed(){
+        return this.seed;
+    }
     /**
      * Getter for the player array
      * which should contain two players
@@ -119,11 +148,10 @@ public class TripleTriadModel
      * Then sets their position on the board based on whether they go first or second.
      */
     private void randomizeFirstTurn(){
-        Random r = new Random();
-        //Generates a random integer 1 or 2
-        int firstPlayer = r.nextInt(2) + 1;
+        //Generates a random owner id 0 or 1
+        int firstPlayer = this.random.nextInt(Owner.PLAYER_COUNT);
         for(Player player: this.getPlayers()){
-            if(player.getOwner().contains(""+firstPlayer)){
+            if(player.getOwner() == firstPlayer){
                 player.setTurn(true);
             }
         }
@@ -141,7 +169,7 @@ public class TripleTriadModel
      */
     public void printTurns(){
         for(Player player: this.getPlayers()){
-            System.out.println(player.getOwner()+"'s turn: "+player.getTurn()+ " ");
+            System.out.println(player.getName()+"'s turn: "+player.getTurn()+ " ");
         }
     }
     /**
@@ -149,9 +177,9 @@ public class TripleTriadModel
      * Used when the game is generated normally.
      */
     private void buildPlayers(){
-        Player player1 = new Player("Player 1");
+        Player player1 = new Player(Owner.PLAYER_ONE, this.random.split());
         player1.setBoardLocation(4);
-        Player player2 = new Player("Player 2");
+        Player player2 = new Player(Owner.PLAYER_TWO, this.random.split());
         player2.setBoardLocation(0);
         Player[] players = {player1, player2};
         this.setPlayers(players);
@@ -165,12 +193,16 @@ public class TripleTriadModel
     }
     /**
      * Instantiates scores AND updates scores. called after a play before repaint.
+     * The board keeps its per player card counts up to date so this doesn't scan the board.
      */
     public void updateScores(){
-        int[] scores = new int[2];
-        scores[0] = this.board.getPlayedCardTotal("Player 1") + this.getPlayer(0).getCardsInHand();
-        scores[1] = this.board.getPlayedCardTotal("Player 2") + this.getPlayer(1).getCardsInHand();
-        this.scores = scores;
+        if(this.scores == null){
+            this.scores = new int[Owner.PLAYER_COUNT];
+        }
+        for(Player player: this.getPlayers()){
+            int owner = player.getOwner();
+            this.scores[owner] = this.board.getPlayedCardTotal(owner) + player.getCardsInHand();
+        }
     }
     /**
      * Checks the player score and sets the currentWinner
@@ -182,27 +214,21 @@ public class TripleTriadModel
         int player1Score = getScores()[0];
         int player2Score = getScores()[1];
         if(player1Score > player2Score){
-            this.currentWinner = "Player 1";
+            this.currentWinner = Owner.PLAYER_ONE;
         }
         if(player2Score > player1Score){
-            this.currentWinner = "Player 2";
+            this.currentWinner = Owner.PLAYER_TWO;
         }
         if(player1Score == player2Score){
-            this.currentWinner = "Draw, Nobody";
+            this.currentWinner = Owner.NEUTRAL;
         }
     }
     /**
-     * Checks every node in the board and if any node doesn't have a card
-     * then the game isn't finished. Updates after every play
+     * The game is finished once every node in the board has a card,
+     * which the board tracks as cards are played. Updates after every play
      */
     public void updateGameFinished(){
-        boolean gameFinished = true;
-        for(Node node: this.board.getPlayedCards()){
-            if(!node.getHasCard()){
-                gameFinished = false;
-            }
-        }
-        this.gameFinished = gameFinished;
+        this.gameFinished = this.board.isFull();
     }
     /**
      * Wrapper for all the play sensitive updater methods to be called after the board's state has changed.
@@ -230,11 +256,11 @@ public class TripleTriadModel
         return this.gameFinished;
     }
     /**
-     * Getter for the current winner String
-     * Calculated based on score, and can either be Player 1, Player 2, or Draw, Nobody.
+     * Getter for the current winner's owner id
+     * Calculated based on score, and can either be Player 1, Player 2, or Owner.NEUTRAL for a draw.
      * Updated by its updater function after every play
      */
-    public String getCurrentWinner(){
+    public int getCurrentWinner(){
         return this.currentWinner;
     }
     /**
@@ -242,35 +268,16 @@ public class TripleTriadModel
      */
     private void buildTripleTriad(){
         this.buildStandardBoard();
+        this.playHandIndexes = new int[this.board.getPlayedCards().length];
         this.buildPlayers();
         this.randomizeFirstTurn();
     }
     /**
-     * This method takes a mouse click location
-     * and tests (abstractly with the clickState class) if
-     * it is possible to make a valid play with the click.
-     */
-    public boolean attemptPlay(Point p){
-        Player player = this.getActivePlayer();
-        this.clickstate.handleNewClick(player, p); 
-        boolean playPossible = false;
-        if(this.clickstate.getPlayPossible()){
-            int validBoardIndex =  this.clickstate.getBoardIndex();
-            int validHandIndex = this.clickstate.getHandIndex();
-            if(player.attemptPlayCard(validBoardIndex, this.board)){
-                /**
-                 * Takes hand index before board index
-                 */
-                playPossible = true;
-            }
-        }
-        return playPossible;
-    }
-    /**
-     * This method makes a play after a click using the attemptPlay method to determine
-     * when this method should be called. It also updates the model after a play is successful
-     * with information changed by that play such as score or the current winner and whether or not
-     * the game is complete
+     * This method takes a mouse click location, passes it to the clickState once and makes a play
+     * if the click completes a valid one: a card in the active player's hand then an empty spot on the board.
+     * The caller updates the rest of the model after a play is made, such as the score, the current winner
+     * and whether or not the game is complete
+     * @return if a play was made
      */
     public boolean play(Point p){
         Player player = this.getActivePlayer();
@@ -283,10 +290,76 @@ public class TripleTriadModel
             /**
             * Takes hand index before board index
             */
-            player.playCard(validHandIndex, validBoardIndex, board);
-            playMade = true;
-            this.clickstate.playMade();
+            if(player.playCard(validHandIndex, validBoardIndex, board)){
+                this.playHandIndexes[this.board.getPlayCount() - 1] = validHandIndex;
+                playMade = true;
+                this.clickstate.playMade();
+            }
         }
         return playMade;
     }
+    /**
+     * Plays a card from the active player's hand to the board by index,
+     * the way play does after the clicks are decoded. Used by computer players.
+     * @return if the card was played
+     */
+    public boolean playMove(int handIndex, int boardIndex){
+        Player player = this.getActivePlayer();
+        boolean played = player.playCard(handIndex, boardIndex, this.board);
+        if(played){
+            this.playHandIndexes[this.board.getPlayCount() - 1] = handIndex;
+        }
+        return played;
+    }
+    /**
+     * Getter for the hand index a play on the board was made from
+     * @param play the play's place in the order of plays, below the board's play count
+     */
+    public int getPlayHandIndex(int play){
+        return this.playHandIndexes[play];
+    }
+    /**
+     * Getter for the owner id of the player who made the first play.
+     * Turns alternate, so it follows from the player to move and the amount of plays made.
+     */
+    public int getFirstPlayer(){
+        int activeOwner = getActivePlayer().getOwner();
+        return this.board.getPlayCount() % 2 == 0 ? activeOwner : Owner.opponent(activeOwner);
+    }
+    /**
+     * Takes back the last play with the board's journal, returning the card to the
+     * spot in the hand it was played from and giving the turn back to its player.
+     * @return if there was a play to undo
+     */
+    public boolean undo(){
+        if(!this.board.canUndo()){
+            return false;
+        }
+        int handIndex = this.playHandIndexes[this.board.getPlayCount() - 1];
+        Card card = this.board.undoLastPlay();
+        this.toggleActivePlayer();
+        Player player = this.getActivePlayer();
+        player.getHand().addCard(card, handIndex);
+        player.updateCardsInHand();
+        this.clickstate.playMade();
+        this.updateGameState();
+        return true;
+    }
+    /**
+     * Plays the last undone play again
+     * @return if there was a play to redo
+     */
+    public boolean redo(){
+        if(!this.board.canRedo()){
+            return false;
+        }
+        Player player = this.getActivePlayer();
+        player.getHand().popCard(this.playHandIndexes[this.board.getPlayCount()]);
+        this.board.redoPlay();
+        player.updateCardsInHand();
+        this.toggleActivePlayer();
+        this.clickstate.playMade();
+        this.updateGameState();
+        return true;
+    }
 }
@@ -2,18 +2,39 @@ import java.util.Arrays;
 import java.util.ArrayList;
 
 import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextLayout;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
 
-import javax.swing.ImageIcon;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import java.util.HashMap;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import javax.imageio.ImageIO;
 /**
  * Handles drawing to the canvas
  * visually placing cards etc.
- * Represents the model of the board on the screen.
+ * Represents the model of the board on the screen, drawing it from the GameSnapshots the game logic thread publishes
+ * so it never reads the model while a play is being made.
  * Objects are drawn by [][] array convention with indices
  * starting from 0. The size of the screen and basis for calculations
  * depends on the scaled width of the packaged card files. by default this is 200px by 200px
  * making the view a 5 by 5 tiled representation where each tile is 200px by 200px
+ * The view paints passively through paint until startActiveRendering is called. After that a RenderLoop
+ * draws it through a flipped BufferStrategy from its own thread, and repaint only asks for the next frame.
+ * Active rendering keeps the last frame in a scene image and only redraws the parts of it that changed:
+ * the cells, the hand slots and the text that differ between the newest snapshot and the one last drawn.
+ * The board, ranks and card backgrounds are packed into a TextureAtlas decoded in the background.
+ * Card faces are decoded the first time a card showing them is drawn and kept with the cards' sprites in an
+ * ImageCache with a memory cap, so a catalog of any size costs no more memory than the cap. The cap is never
+ * below what one frame draws, so drawing a frame never evicts an image the same frame needs.
+ * Cards and the board are drawn as placeholders until their images are decoded.
  *
  * @author Keagen Thomson
  * @version 1.0.0
@@ -26,25 +47,18 @@ public class TripleTriadView extends Canvas
      */
     private int tileSize;
     /**
-     * The model the view references objects from to draw
+     * The model the view was made for, only read for its layout. What is drawn comes from its snapshots.
      */
     private TripleTriadModel tripleTriadModel;
     /**
-     * A dictionary of monster card images referenced by their name
+     * The images every game draws: the ranks (1 - 10/A) by their name,
+     * the colors drawn behind a card by their name followed by "CardBG" and the 3x3 board by BOARD_IMAGE
      */
-    HashMap<String, Image> faceImages;
+    TextureAtlas images;
     /**
-     * A dictionary of monster card rank images (1 - 10/A) referenced by their name
+     * The name of the image representing the 3x3 triple triad board
      */
-    HashMap<String, Image> rankImages;
-    /**
-     * A dictionary of the colors drawn behind a card referenced by their name
-     */
-    HashMap<String, Image> backgroundImages;
-    /**
-     * An image representing the 3x3 triple triad board
-     */
-    Image boardImage;
+    static final String BOARD_IMAGE = "Triple Triad Board";
     /**
      * An array of the two players interacting with the model, used to draw the hands to the screen
      */
@@ -66,10 +80,111 @@ public class TripleTriadView extends Canvas
      */
     final String[] cardBG = {"Blue", "Red", "Neutral"};
     /**
-     * A string array of all possible filename prefixes for a card's name
+     * The font of the score and the turn, created once instead of on every draw
+     */
+    private static final Font TEXT_FONT = new Font("TimesRoman", Font.PLAIN, 60);
+    /**
+     * The frame rate of active rendering
+     */
+    private static final int FRAMES_PER_SECOND = 60;
+    /**
+     * Draws the view once active rendering starts, null while painting passively
+     */
+    private volatile RenderLoop renderLoop;
+    /**
+     * The newest snapshot of the model, what the next frame draws
+     */
+    private volatile GameSnapshot snapshot;
+    /**
+     * Set when the view changed and the render loop should draw a frame
+     */
+    private final AtomicBoolean frameRequested;
+    /**
+     * The context the cached text layouts were laid out for
+     */
+    private FontRenderContext layoutContext;
+    /**
+     * The laid out text of every score, indexed by the score
+     */
+    private final TextLayout[] scoreLayouts;
+    /**
+     * The laid out name of the player to move, indexed by owner id
+     */
+    private final TextLayout[] turnLayouts;
+    /**
+     * The laid out announcement of the winner, indexed by owner id with Owner.NEUTRAL for a draw
+     */
+    private final TextLayout[] winnerLayouts;
+    /**
+     * The memory kept for card faces and sprites when no cap is given, room for about 60 definitions' sprites
+     */
+    public static final long DEFAULT_IMAGE_CACHE_BYTES = 32L << 20;
+    /**
+     * The decoded card faces by image key and the cards' sprites by definition. A sprite is one image of the
+     * card composited in every owner's color side by side, indexed by owner id.
+     */
+    private final ImageCache<Object> cardImages;
+    /**
+     * Decodes card faces in the background
      */
-    final String[] cardNames ={"Bomb", "Cactuar", "Fat Chocobo", "Flan", "Ifrit", "Imp", "Iron Giant",
-        "Lamia", "Lich", "Magic Pot", "Tiamat", "Tonberry"};
+    private final ExecutorService faceLoader;
+    /**
+     * The image keys of the faces being decoded, locked on itself
+     */
+    private final HashSet<String> pendingFaces;
+    /**
+     * Set when the atlas finished decoding and the scene drawn with placeholders has to be drawn again
+     */
+    private final AtomicBoolean imagesChanged;
+    /**
+     * The image keys of the faces decoded since the last frame, whose cards are drawn again
+     */
+    private final ConcurrentLinkedQueue<String> decodedFaces;
+    /**
+     * The frame being shown, kept between frames so only what changed is drawn again.
+     * Made at the screen's scale so it is copied to the back buffer pixel for pixel.
+     */
+    private Image scene;
+    /**
+     * Cleared when the whole scene has to be drawn again
+     */
+    private boolean sceneValid;
+    /**
+     * The card drawn on every cell of the scene, null for an empty cell
+     */
+    private final CardDefinition[] drawnCellDefinitions;
+    /**
+     * The owner id of the card drawn on every cell of the scene
+     */
+    private final int[] drawnCellOwners;
+    /**
+     * The parts of the scene to draw again in the next frame
+     */
+    private final ArrayList<Rectangle> dirtyRegions;
+    /**
+     * The sprite drawn in every hand slot of the scene, by owner id then slot, null for an empty slot or a placeholder
+     */
+    private final Image[][] drawnHandSprites;
+    /**
+     * The card drawn in every hand slot of the scene, by owner id then slot, null for an empty slot
+     */
+    private final CardDefinition[][] drawnHandDefinitions;
+    /**
+     * The scores drawn in the scene, by owner id
+     */
+    private final int[] drawnScores;
+    /**
+     * Where the scores drawn in the scene are, by owner id
+     */
+    private final Rectangle[] drawnScoreBounds;
+    /**
+     * The turn drawn in the scene as an owner id, or the winner as Owner.PLAYER_COUNT plus their owner id
+     */
+    private int drawnBanner;
+    /**
+     * Where the turn or winner drawn in the scene is
+     */
+    private Rectangle drawnBannerBounds;
     
 
     /**
@@ -77,93 +192,156 @@ public class TripleTriadView extends Canvas
      * Sets the window size to 5x5 the square tile size which by default is 1000x1000
      */
     public TripleTriadView(TripleTriadModel tripleTriadModel)
+    {
+        this(tripleTriadModel, DEFAULT_IMAGE_CACHE_BYTES);
+    }
+    /**
+     * Creates a view keeping up to imageCacheBytes of card faces and sprites, or one frame's if that is more
+     */
+    public TripleTriadView(TripleTriadModel tripleTriadModel, long imageCacheBytes)
     {
         this.tripleTriadModel = tripleTriadModel;
-        this.faceImages = new HashMap<String, Image>();
-        this.backgroundImages = new HashMap<String, Image>();
-        this.rankImages = new HashMap<String, Image>();
-        this.boardImage = boardImage;
         this.players = tripleTriadModel.getPlayers();
         this.board = tripleTriadModel.getBoard();
+        this.frameRequested = new AtomicBoolean(true);
+        this.scoreLayouts = new TextLayout[this.board.getPlayedCards().length + 2 * DealGenerator.HAND_SIZE + 1];
+        this.turnLayouts = new TextLayout[Owner.PLAYER_COUNT];
+        this.winnerLayouts = new TextLayout[Owner.NEUTRAL + 1];
+        this.faceLoader = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "card-face-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pendingFaces = new HashSet<String>();
+        this.imagesChanged = new AtomicBoolean(false);
+        this.decodedFaces = new ConcurrentLinkedQueue<String>();
+        this.sceneValid = false;
+        this.snapshot = new GameSnapshot(tripleTriadModel);
+        this.drawnCellDefinitions = new CardDefinition[this.board.getPlayedCards().length];
+        this.drawnCellOwners = new int[this.board.getPlayedCards().length];
+        this.dirtyRegions = new ArrayList<Rectangle>();
+        this.drawnHandSprites = new Image[Owner.PLAYER_COUNT][DealGenerator.HAND_SIZE];
+        this.drawnHandDefinitions = new CardDefinition[Owner.PLAYER_COUNT][DealGenerator.HAND_SIZE];
+        this.drawnScores = new int[Owner.PLAYER_COUNT];
+        this.drawnScoreBounds = new Rectangle[Owner.PLAYER_COUNT];
         loadImages();
-        tileSize = this.backgroundImages.get("Blue").getWidth(null);
+        tileSize = this.images.getWidth("Blue" + "CardBG");
+        this.cardImages = new ImageCache<Object>(Math.max(imageCacheBytes, frameImageBytes()));
         this.setBackground(backgroundColor);
         setWindowSize(5, 5);
     }
     /**
-     * Loads all the color background files as images into a mapped dictionary by their prefix
+     * Lays out the atlas of the images every game draws and starts decoding it in the background.
+     * The view is drawn again once it is decoded. Card faces aren't in it, they are decoded when they are needed.
+     * Used in the constructor, the sizes of the images are known when it returns.
      */
-    public void loadCardBackgroundImages(){
+    public void loadImages(){
+        ArrayList<String> names = new ArrayList<String>();
+        names.add(BOARD_IMAGE);
+        names.addAll(Arrays.asList(ranks));
         for(String cardBG: cardBG){
-            String fileName = "Assets/"+cardBG+"CardBG.png";
-            Image cardBGImageFile = new ImageIcon(fileName).getImage();
-            this.backgroundImages.put(cardBG, cardBGImageFile);
+            names.add(cardBG + "CardBG");
         }
-        
+        this.images = new TextureAtlas("Assets/", names.toArray(new String[names.size()]));
+        this.images.load(Runtime.getRuntime().availableProcessors(), () -> imagesDecoded());
     }
-     /**
-     * Loads all the monster card faces files as images into a mapped dictionary by their prefix
+    /**
+     * Estimates the memory of the card images one frame can draw: a sprite and a face for every cell and
+     * hand slot. Smaller caps would evict images while a frame is drawn that the same frame then decodes again.
      */
-    public void loadCardFaceImages(){
-        for(String cardName: cardNames){
-            
-            String fileName = "Assets/"+cardName+".png";
-            Image cardNameImageFile = new ImageIcon(fileName).getImage();
-            this.faceImages.put(cardName, cardNameImageFile);
-        }
-        
+    private long frameImageBytes(){
+        long tileBytes = 4L * this.tileSize * this.tileSize;
+        int cards = this.board.getPlayedCards().length + Owner.PLAYER_COUNT * DealGenerator.HAND_SIZE;
+        return cards * tileBytes * (Owner.NEUTRAL + 2);
     }
     /**
-     * Loads all the card ranks files as images into a mapped dictionary by their prefix
+     * Gets a card face, starting to decode it in the background if it isn't kept
+     * @return the face or null until it is decoded
      */
-    public void loadCardRankImages(){
-        for(String rankName: ranks){
-            String fileName = "Assets/"+rankName+".png";
-            Image rankNameImageFile = new ImageIcon(fileName).getImage();
-            this.rankImages.put(rankName, rankNameImageFile);
+    private Image getFace(String imageKey){
+        Image face = this.cardImages.get(imageKey);
+        if(face == null){
+            synchronized(this.pendingFaces){
+                if(!this.pendingFaces.add(imageKey)){
+                    return null;
+                }
+            }
+            this.faceLoader.submit(() -> decodeFace(imageKey));
         }
-        
+        return face;
     }
     /**
-     * Loads the 3x3 board by its full file name. the board by default is 3x3 the unscaled dimensions of a given card
+     * Decodes a card face into the cache on the face loader. A face that can't be decoded is kept as an
+     * empty image so its cards are drawn without one instead of being tried again.
      */
-    public void loadBoardImage(){
-        String fileName = "Assets/Triple Triad Board.png";
-        this.boardImage = new ImageIcon(fileName).getImage();
-        
+    private void decodeFace(String imageKey){
+        Image face;
+        try {
+            face = ImageIO.read(new File("Assets/" + imageKey + ".png"));
+            if(face == null){
+                throw new IOException("not an image");
+            }
+        } catch(IOException e){
+            System.out.println("Couldn't load the face of " + imageKey + ": " + e.getMessage());
+            face = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        }
+        this.cardImages.put(imageKey, face);
+        synchronized(this.pendingFaces){
+            this.pendingFaces.remove(imageKey);
+        }
+        this.decodedFaces.add(imageKey);
+        repaint();
     }
     /**
-     * Calls all loading methods in a wrapper.
-     * Used to load images in the constructor so they can be drawn to the canvas
+     * Draws the whole view again once the atlas it drew placeholders for is decoded
      */
-    public void loadImages(){
-        loadBoardImage();
-        loadCardRankImages();
-        loadCardFaceImages();
-        loadCardBackgroundImages();
+    private void imagesDecoded(){
+        this.imagesChanged.set(true);
+        repaint();
     }
     /**
      * Draws the board to the middle of the screen
      */
     public void drawBoard(Graphics g){
-        g.drawImage(this.boardImage, 
+        if(!this.images.draw(g, BOARD_IMAGE,
         (int) (1 * this.tileSize),
-        (int) (1 * this.tileSize),
-        null);
-        
+        (int) (1 * this.tileSize))){
+            //Not decoded yet, outline the cells instead
+            g.setColor(Color.GRAY);
+            for(int row = 0; row < this.board.getHeight(); row++){
+                for(int column = 0; column < this.board.getWidth(); column++){
+                    g.drawRect((column + 1) * this.tileSize, (row + 1) * this.tileSize, this.tileSize - 1, this.tileSize - 1);
+                }
+            }
+        }
     }
     /**
      * Draws the cards played to the board at the appropriate
      * index representation which is calculated by another method
      * and depends on the width (in tiles or "indexes") of the board.
+     * Only the cells inside the graphics' clip are visited, so redrawing one cell of a large board stays cheap.
      */
-    public void drawCardsOnBoard(Graphics g){
-        for(Node node: this.board.getPlayedCards()){
-            boolean hasACard = node.getHasCard();
-            if(hasACard){
-                Card cardToDraw = node.getCard();
-                Point p = this.calculatePoint(node.getIndex());
-                drawCard(g, cardToDraw, p.x, p.y);
+    public void drawCardsOnBoard(Graphics g, GameSnapshot snapshot){
+        int width = snapshot.getBoardWidth();
+        int firstColumn = 0;
+        int lastColumn = width - 1;
+        int firstRow = 0;
+        int lastRow = snapshot.getBoardHeight() - 1;
+        Rectangle clip = g.getClipBounds();
+        if(clip != null){
+            //Board cells start a tile in from the view's edge
+            firstColumn = Math.max(firstColumn, clip.x / this.tileSize - 1);
+            lastColumn = Math.min(lastColumn, (clip.x + clip.width - 1) / this.tileSize - 1);
+            firstRow = Math.max(firstRow, clip.y / this.tileSize - 1);
+            lastRow = Math.min(lastRow, (clip.y + clip.height - 1) / this.tileSize - 1);
+        }
+        for(int row = firstRow; row <= lastRow; row++){
+            for(int column = firstColumn; column <= lastColumn; column++){
+                int boardIndex = row * width + column;
+                CardDefinition definition = snapshot.getCellDefinition(boardIndex);
+                if(definition != null){
+                    drawCard(g, definition, snapshot.getCellOwner(boardIndex), column + 1, row + 1);
+                }
             }
         }
     }
@@ -181,16 +359,12 @@ public class TripleTriadView extends Canvas
     /**
      * Draws the current score on the bottom row in the column adjacent to the respective player
      */
-    public void drawScore(Graphics g){
-        g.setFont(new Font("TimesRoman", Font.PLAIN, 60)); 
+    public void drawScore(Graphics g, GameSnapshot snapshot){
         g.setColor(Color.BLACK);
-        int[] scores = this.tripleTriadModel.getScores();
-        String Player1score = ""+scores[0];
-        String Player2score = ""+scores[1];
-        g.drawString(Player1score,
+        drawText(g, this.scoreLayouts, snapshot.getScore(Owner.PLAYER_ONE),
         (int) (3 * this.tileSize),
         (int) (5 * this.tileSize));
-        g.drawString(Player2score,
+        drawText(g, this.scoreLayouts, snapshot.getScore(Owner.PLAYER_TWO),
         (int) (1 * this.tileSize),
         (int) (5 * this.tileSize));
         
@@ -199,47 +373,95 @@ public class TripleTriadView extends Canvas
      * If the game isn't complete it draws the current players turn in the top row middle column.
      * Otherwise it draws who won the game
      */
-    public void drawCurrentTurn(Graphics g){
-        if(!this.tripleTriadModel.getGameFinished()){
-            g.setFont(new Font("TimesRoman", Font.PLAIN, 60)); 
-            g.setColor(Color.BLACK);
-            String currentPlayer = this.tripleTriadModel.getActivePlayer().getOwner();
-            g.drawString(currentPlayer,
+    public void drawCurrentTurn(Graphics g, GameSnapshot snapshot){
+        g.setColor(Color.BLACK);
+        if(!snapshot.getGameFinished()){
+            drawText(g, this.turnLayouts, snapshot.getActiveOwner(),
             (int) (2 * this.tileSize),
             (int) (0 * this.tileSize) + 60);
         } else{
-            g.setFont(new Font("TimesRoman", Font.PLAIN, 60)); 
-            g.setColor(Color.BLACK);
-            String currentWinner = this.tripleTriadModel.getCurrentWinner();
-            g.drawString(currentWinner + " Won",
+            drawText(g, this.winnerLayouts, snapshot.getCurrentWinner(),
             (int) (2 * this.tileSize),
             (int) (0 * this.tileSize) + 60);
         }
     }
     /**
-     * Draws a card's face at a [][] view index based on its name
+     * Draws a score, a turn or a winner in TEXT_FONT at a baseline, laying it out the first time it is drawn
+     * and reusing the layout after that. Layouts are made again if the graphics lays text out differently.
+     * @param layouts the cache the text's layout is kept in, which says what kind of text it is
+     * @param key the score or owner id the text is about, its index in layouts
+     */
+    private void drawText(Graphics g, TextLayout[] layouts, int key, int x, int y){
+        if(!(g instanceof Graphics2D) || key >= layouts.length){
+            g.setFont(TEXT_FONT);
+            g.drawString(textOf(layouts, key), x, y);
+            return;
+        }
+        getLayout((Graphics2D) g, layouts, key).draw((Graphics2D) g, x, y);
+    }
+    /**
+     * Gets the layout of a score, a turn or a winner, laying it out if it isn't cached for the graphics' context
+     */
+    private TextLayout getLayout(Graphics2D g2, TextLayout[] layouts, int key){
+        FontRenderContext context = g2.getFontRenderContext();
+        if(!context.equals(this.layoutContext)){
+            this.layoutContext = context;
+            Arrays.fill(this.scoreLayouts, null);
+            Arrays.fill(this.turnLayouts, null);
+            Arrays.fill(this.winnerLayouts, null);
+        }
+        if(layouts[key] == null){
+            layouts[key] = new TextLayout(textOf(layouts, key), TEXT_FONT, context);
+        }
+        return layouts[key];
+    }
+    /**
+     * Calculates the pixels drawText covers, with a pixel more on every side for antialiasing
+     */
+    private Rectangle textBounds(Graphics2D g2, TextLayout[] layouts, int key, int x, int y){
+        if(key >= layouts.length){
+            //Drawn without a layout, a tile wide and tall is more than a score or a name needs
+            return new Rectangle(x, y - this.tileSize, this.tileSize * 3, this.tileSize + TEXT_FONT.getSize());
+        }
+        Rectangle bounds = getLayout(g2, layouts, key).getPixelBounds(g2.getFontRenderContext(), x, y);
+        bounds.grow(1, 1);
+        return bounds;
+    }
+    /**
+     * Builds the text of a score, a turn or a winner, only needed when it isn't laid out yet
+     */
+    private String textOf(TextLayout[] layouts, int key){
+        if(layouts == this.scoreLayouts){
+            return ""+key;
+        }
+        if(layouts == this.turnLayouts){
+            return Owner.nameOf(key);
+        }
+        return (key == Owner.NEUTRAL ? "Draw, Nobody" : Owner.nameOf(key)) + " Won";
+    }
+    /**
+     * Draws a card's face at a [][] view index based on its name, nothing until the face is decoded
      * @param widthIndex also known as the row but starts from 0 as it is an index
      * @param heightIndex also known as the column but starts from 0 as it is an index
      */ 
     public void drawCardFace(Graphics g,Card card, int widthIndex, int heightIndex){
-        String cardName = card.getName();
-        Image cardFace = this.faceImages.get(cardName);
-        g.drawImage(cardFace,
-            (int) (widthIndex * this.tileSize),
-            (int) (heightIndex * this.tileSize),
-            null);
+        Image cardFace = getFace(card.getImageKey());
+        if(cardFace != null){
+            g.drawImage(cardFace,
+                (int) (widthIndex * this.tileSize),
+                (int) (heightIndex * this.tileSize),
+                null);
+        }
         
     }
     /**
      * Draws the card's background: Red, Blue, or Neutral(Purple) at a row and column
      */
     public void drawCardColorBackground(Graphics g, Card card, int widthIndex, int heightIndex){
-        String cardColor = card.getColor();
-        Image cardColorBG = this.backgroundImages.get(cardColor);
-        g.drawImage(cardColorBG,
+        String cardColor = Owner.colorOf(card.getOwner());
+        this.images.draw(g, cardColor + "CardBG",
             (int) (widthIndex * this.tileSize),
-            (int) (heightIndex * this.tileSize),
-            null);
+            (int) (heightIndex * this.tileSize));
     }
     /**
      * Draws the ranks for a card on all 4 sides
@@ -258,12 +480,12 @@ public class TripleTriadView extends Canvas
      * the four sides in clockwise order starting from the top (0)
      */
     public void drawRank(Graphics g, Card card, int widthIndex, int heightIndex, int side){
-        int rank = card.getRanks().get(side);
+        int rank = card.getRank(side);
         int midPointX;
         int midPointY;
-        Image rankImage = this.rankImages.get(""+rank);
-        int rankImageWidth = rankImage.getWidth(null);
-        int rankImageHeight = rankImage.getHeight(null);
+        String rankImage = this.ranks[rank - 1];
+        int rankImageWidth = this.images.getWidth(rankImage);
+        int rankImageHeight = this.images.getHeight(rankImage);
         //adds the index to the rank's midpoint calculation
         midPointX = (widthIndex * this.tileSize) + ((this.tileSize - rankImageWidth)/2);
         midPointY = (heightIndex * this.tileSize) + ((this.tileSize - rankImageHeight)/2);
@@ -271,62 +493,389 @@ public class TripleTriadView extends Canvas
         int offset = (85*(this.tileSize/2))/100; 
         //Top
         if(side == 0){
-            g.drawImage(rankImage, midPointX, (midPointY - offset), null);
+            this.images.draw(g, rankImage, midPointX, (midPointY - offset));
         }
         //Right
         if(side == 1){
-            g.drawImage(rankImage, (midPointX + offset), midPointY, null);
+            this.images.draw(g, rankImage, (midPointX + offset), midPointY);
         }
         //Bottom
         if(side == 2){
-            g.drawImage(rankImage, midPointX , (midPointY + offset), null);
+            this.images.draw(g, rankImage, midPointX , (midPointY + offset));
         }
         //Left
         if(side == 3){
-            g.drawImage(rankImage, (midPointX - offset), midPointY, null);
+            this.images.draw(g, rankImage, (midPointX - offset), midPointY);
         }
     }
     /**
-     * Draws a layered card placing the card background below the card's face
-     * and the cards ranks above its face.
+     * Draws a card as its sprite, composited the first time the card's definition is drawn.
+     * Until its images are decoded the card is a tile in its owner's color.
      * Graphics, Card, X, Y
      */
     public void drawCard(Graphics g, Card card, int widthIndex, int heightIndex){
+        drawCard(g, card.getDefinition(), card.getOwner(), widthIndex, heightIndex);
+    }
+    /**
+     * Draws a card by its definition and owner id, as it is kept in a snapshot
+     */
+    public void drawCard(Graphics g, CardDefinition definition, int owner, int widthIndex, int heightIndex){
+        Image sprite = getSprite(definition);
+        if(sprite == null){
+            drawPlaceholderCard(g, owner, widthIndex, heightIndex);
+            return;
+        }
+        int x = widthIndex * this.tileSize;
+        int y = heightIndex * this.tileSize;
+        int spriteX = owner * this.tileSize;
+        g.drawImage(sprite, x, y, x + this.tileSize, y + this.tileSize,
+            spriteX, 0, spriteX + this.tileSize, this.tileSize, null);
+    }
+    /**
+     * Draws a card without its images, as a tile in its owner's color
+     */
+    public void drawPlaceholderCard(Graphics g, int owner, int widthIndex, int heightIndex){
+        int x = widthIndex * this.tileSize;
+        int y = heightIndex * this.tileSize;
+        g.setColor(owner == Owner.PLAYER_ONE ? Color.BLUE
+            : owner == Owner.PLAYER_TWO ? Color.RED : Color.GRAY);
+        g.fillRect(x, y, this.tileSize, this.tileSize);
+        g.setColor(this.backgroundColor);
+        g.drawRect(x, y, this.tileSize - 1, this.tileSize - 1);
+    }
+    /**
+     * Draws a layered card placing the card background below the card's face
+     * and the cards ranks above its face.
+     */
+    public void drawCardLayers(Graphics g, Card card, int widthIndex, int heightIndex){
         drawCardColorBackground(g,card,widthIndex,heightIndex);
         drawCardFace(g,card,widthIndex,heightIndex);
         drawCardRanks(g, card, widthIndex, heightIndex);
         
     }
+    /**
+     * Gets a card's sprite, compositing it if its definition isn't kept.
+     * Capturing a card only changes which part of the sprite is drawn, so sprites never go stale.
+     * @return the sprite or null until the card's images are decoded
+     */
+    private Image getSprite(CardDefinition definition){
+        Image sprite = this.cardImages.get(definition);
+        if(sprite == null && this.images.isLoaded()){
+            Image face = getFace(definition.getImageKey());
+            if(face != null){
+                sprite = compositeSprite(definition, face);
+                this.cardImages.put(definition, sprite);
+            }
+        }
+        return sprite;
+    }
+    /**
+     * Draws a card definition's layers in every owner's color side by side into a new opaque image the screen
+     * can keep in video memory. The card backgrounds fill the whole tile, so the sprite is opaque and drawing
+     * it is a plain copy. The top rank's image reaches a row above the card, that row is clipped to the tile.
+     */
+    private Image compositeSprite(CardDefinition definition, Image face){
+        Image sprite = createOpaqueImage(this.tileSize * (Owner.NEUTRAL + 1), this.tileSize);
+        Graphics g = sprite.getGraphics();
+        try {
+            for(int owner = 0; owner <= Owner.NEUTRAL; owner++){
+                Card card = new Card(definition, owner);
+                g.setClip(owner * this.tileSize, 0, this.tileSize, this.tileSize);
+                drawCardColorBackground(g, card, owner, 0);
+                g.drawImage(face, owner * this.tileSize, 0, null);
+                drawCardRanks(g, card, owner, 0);
+            }
+        } finally {
+            g.dispose();
+        }
+        return sprite;
+    }
+    /**
+     * Getter for the cache of card faces and sprites
+     */
+    public ImageCache<Object> getCardImages(){
+        return this.cardImages;
+    }
     /**
      * Calls the draw hand method for both players
      */
-    public void drawHands(Graphics g){
-        for(Player player: tripleTriadModel.getPlayers()){
-            int handWidth = player.getBoardLocation();
-            Hand hand = player.getHand();
-            drawHand(g, hand, handWidth);
+    public void drawHands(Graphics g, GameSnapshot snapshot){
+        for(int owner = 0; owner < snapshot.getHandCount(); owner++){
+            drawHand(g, snapshot, owner);
         }
     }
     /**
      * Draws a hand by staying in a column then incrementing its heightIndex by one and drawing the next card
      */
-    public void drawHand(Graphics g, Hand hand, int widthIndex){
-        int heightIndex = 0;
-        for(Card card: hand.getCards()){
-            drawCard(g, card, widthIndex, heightIndex);
-        
-            heightIndex += 1;
+    public void drawHand(Graphics g, GameSnapshot snapshot, int owner){
+        int widthIndex = snapshot.getHandColumn(owner);
+        for(int heightIndex = 0; heightIndex < snapshot.getHandSize(owner); heightIndex++){
+            drawCard(g, snapshot.getHandDefinition(owner, heightIndex), owner, widthIndex, heightIndex);
         }
     }
     /**
-     * calls all draw methods and paints them to the canvasa
+     * calls all draw methods and paints the newest snapshot to the canvas
      */
-    public void paint (Graphics g){
-        drawHands(g);
+    public void drawScene(Graphics g){
+        drawScene(g, this.snapshot);
+    }
+    /**
+     * calls all draw methods and paints a snapshot to the canvas
+     */
+    public void drawScene(Graphics g, GameSnapshot snapshot){
+        drawHands(g, snapshot);
         drawBoard(g);
-        drawCardsOnBoard(g);
-        drawScore(g);
-        drawCurrentTurn(g);
+        drawCardsOnBoard(g, snapshot);
+        drawScore(g, snapshot);
+        drawCurrentTurn(g, snapshot);
+    }
+    /**
+     * Makes a snapshot the one drawn, called by the game logic thread after each change to the model
+     */
+    public void publish(GameSnapshot snapshot){
+        this.snapshot = snapshot;
+        if(this.renderLoop != null){
+            requestFrame();
+        } else {
+            repaint();
+        }
+    }
+    /**
+     * Getter for the newest snapshot of the model
+     */
+    public GameSnapshot getSnapshot(){
+        return this.snapshot;
+    }
+    /**
+     * Paints the view, or asks the render loop for a frame once active rendering started
+     */
+    public void paint (Graphics g){
+        if(this.renderLoop != null){
+            requestFrame();
+            return;
+        }
+        drawScene(g);
+    }
+    /**
+     * Clears and paints the view, or asks the render loop for a frame once active rendering started
+     */
+    public void update(Graphics g){
+        if(this.renderLoop != null){
+            requestFrame();
+            return;
+        }
+        super.update(g);
+    }
+    /**
+     * Switches to active rendering: creates a page flipping BufferStrategy, falling back to copying the
+     * back buffer when flipping isn't supported, and starts a RenderLoop drawing into it.
+     * The view has to be in a window that is showing.
+     */
+    public void startActiveRendering(){
+        if(this.renderLoop != null){
+            return;
+        }
+        try {
+            createBufferStrategy(2, new BufferCapabilities(new ImageCapabilities(true), new ImageCapabilities(true),
+                BufferCapabilities.FlipContents.UNDEFINED));
+        } catch(AWTException e){
+            createBufferStrategy(2);
+        }
+        this.renderLoop = new RenderLoop(this, FRAMES_PER_SECOND);
+        requestFrame();
+        this.renderLoop.start();
+    }
+    /**
+     * Getter for the loop drawing the view, null while painting passively
+     */
+    public RenderLoop getRenderLoop(){
+        return this.renderLoop;
+    }
+    /**
+     * Asks the render loop to draw a frame on its next tick
+     */
+    public void requestFrame(){
+        this.frameRequested.set(true);
+    }
+    /**
+     * Clears the frame request, used by the render loop
+     * @return if a frame was requested
+     */
+    public boolean takeFrameRequest(){
+        return this.frameRequested.getAndSet(false);
+    }
+    /**
+     * Brings the scene up to date, then copies it into the back buffer and shows it, copying again
+     * if the buffer's contents were lost. A flipped back buffer holds nothing useful, so the whole scene
+     * is copied, but only the parts of it that changed are drawn again.
+     */
+    public void renderFrame(){
+        BufferStrategy strategy = getBufferStrategy();
+        Image frame = updateScene();
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    g.drawImage(frame, 0, 0, getWidth(), getHeight(), null);
+                } finally {
+                    g.dispose();
+                }
+            } while(strategy.contentsRestored());
+            strategy.show();
+        } while(strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+    /**
+     * Draws what changed since the last frame into the scene, or the whole scene the first time,
+     * after the view is resized and after the atlas is decoded. Cards drawn as placeholders are drawn again
+     * once their faces are decoded.
+     * The newest snapshot is read once, so every part of the frame shows the same moment of the game.
+     * @return the scene
+     */
+    public Image updateScene(){
+        GameSnapshot snapshot = this.snapshot;
+        AffineTransform scale = screenTransform();
+        int sceneWidth = Math.max(1, (int) Math.ceil(getWidth() * scale.getScaleX()));
+        int sceneHeight = Math.max(1, (int) Math.ceil(getHeight() * scale.getScaleY()));
+        if(this.scene == null || this.scene.getWidth(null) != sceneWidth || this.scene.getHeight(null) != sceneHeight){
+            this.scene = createOpaqueImage(sceneWidth, sceneHeight);
+            this.sceneValid = false;
+        }
+        if(this.imagesChanged.getAndSet(false)){
+            this.sceneValid = false;
+        }
+        Graphics2D g = (Graphics2D) this.scene.getGraphics();
+        try {
+            g.scale(scale.getScaleX(), scale.getScaleY());
+            this.dirtyRegions.clear();
+            findDirtyRegions(g, snapshot);
+            findDecodedFaceRegions();
+            if(!this.sceneValid){
+                this.dirtyRegions.clear();
+                this.dirtyRegions.add(new Rectangle(0, 0, getWidth(), getHeight()));
+                this.sceneValid = true;
+            }
+            for(Rectangle region: this.dirtyRegions){
+                g.setClip(region);
+                g.setColor(this.backgroundColor);
+                g.fillRect(region.x, region.y, region.width, region.height);
+                drawScene(g, snapshot);
+            }
+        } finally {
+            g.dispose();
+        }
+        return this.scene;
+    }
+    /**
+     * Collects the parts of the scene that no longer match a snapshot: the cells whose card or owner changed,
+     * the hand slots whose card changed and the old and new place of any text that changed. Remembers the
+     * snapshot's cells, hands and text as drawn. A hand too big for the slots remembered clears sceneValid instead.
+     */
+    private void findDirtyRegions(Graphics2D g, GameSnapshot snapshot){
+        for(int i = 0; i < this.drawnCellDefinitions.length; i++){
+            CardDefinition definition = snapshot.getCellDefinition(i);
+            int owner = snapshot.getCellOwner(i);
+            if(definition != this.drawnCellDefinitions[i] || owner != this.drawnCellOwners[i]){
+                this.drawnCellDefinitions[i] = definition;
+                this.drawnCellOwners[i] = owner;
+                Point p = calculatePoint(i);
+                this.dirtyRegions.add(tileBounds(p.x, p.y));
+            }
+        }
+        for(int owner = 0; owner < snapshot.getHandCount(); owner++){
+            Image[] drawnSprites = this.drawnHandSprites[owner];
+            CardDefinition[] drawnDefinitions = this.drawnHandDefinitions[owner];
+            int handSize = snapshot.getHandSize(owner);
+            if(handSize > drawnSprites.length){
+                this.sceneValid = false;
+            }
+            for(int slot = 0; slot < drawnSprites.length; slot++){
+                CardDefinition definition = slot < handSize ? snapshot.getHandDefinition(owner, slot) : null;
+                Image sprite = definition != null ? getSprite(definition) : null;
+                if(sprite != drawnSprites[slot] || definition != drawnDefinitions[slot]){
+                    drawnSprites[slot] = sprite;
+                    drawnDefinitions[slot] = definition;
+                    this.dirtyRegions.add(tileBounds(snapshot.getHandColumn(owner), slot));
+                }
+            }
+        }
+        for(int owner = 0; owner < Owner.PLAYER_COUNT; owner++){
+            int score = snapshot.getScore(owner);
+            if(score != this.drawnScores[owner] || this.drawnScoreBounds[owner] == null){
+                Rectangle bounds = textBounds(g, this.scoreLayouts, score,
+                    (owner == Owner.PLAYER_ONE ? 3 : 1) * this.tileSize, 5 * this.tileSize);
+                addTextRegion(this.drawnScoreBounds[owner], bounds);
+                this.drawnScores[owner] = score;
+                this.drawnScoreBounds[owner] = bounds;
+            }
+        }
+        boolean finished = snapshot.getGameFinished();
+        int banner = finished ? Owner.PLAYER_COUNT + snapshot.getCurrentWinner() : snapshot.getActiveOwner();
+        if(banner != this.drawnBanner || this.drawnBannerBounds == null){
+            Rectangle bounds = textBounds(g, finished ? this.winnerLayouts : this.turnLayouts,
+                finished ? banner - Owner.PLAYER_COUNT : banner, 2 * this.tileSize, 60);
+            addTextRegion(this.drawnBannerBounds, bounds);
+            this.drawnBanner = banner;
+            this.drawnBannerBounds = bounds;
+        }
+    }
+    /**
+     * Marks the cells showing a face decoded since the last frame as dirty. Hand slots are found by
+     * findDirtyRegions, since their sprite changes once the face is decoded.
+     */
+    private void findDecodedFaceRegions(){
+        if(this.decodedFaces.isEmpty()){
+            return;
+        }
+        HashSet<String> faces = new HashSet<String>();
+        String imageKey;
+        while((imageKey = this.decodedFaces.poll()) != null){
+            faces.add(imageKey);
+        }
+        for(int i = 0; i < this.drawnCellDefinitions.length; i++){
+            CardDefinition definition = this.drawnCellDefinitions[i];
+            if(definition != null && faces.contains(definition.getImageKey())){
+                Point p = calculatePoint(i);
+                this.dirtyRegions.add(tileBounds(p.x, p.y));
+            }
+        }
+    }
+    /**
+     * Marks where changed text was and where it now is as dirty
+     */
+    private void addTextRegion(Rectangle oldBounds, Rectangle newBounds){
+        if(oldBounds != null){
+            this.dirtyRegions.add(oldBounds);
+        }
+        this.dirtyRegions.add(newBounds);
+    }
+    /**
+     * Calculates the pixels of the tile at a [][] view index
+     */
+    private Rectangle tileBounds(int widthIndex, int heightIndex){
+        return new Rectangle(widthIndex * this.tileSize, heightIndex * this.tileSize, this.tileSize, this.tileSize);
+    }
+    /**
+     * Gets the scale from the view's size to the screen's pixels, the identity when not on a scaled screen
+     */
+    private AffineTransform screenTransform(){
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        return configuration != null ? configuration.getDefaultTransform() : new AffineTransform();
+    }
+    /**
+     * Creates an opaque image the screen can keep in video memory, or a plain one without a screen
+     */
+    private Image createOpaqueImage(int width, int height){
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        if(configuration == null && !GraphicsEnvironment.isHeadless()){
+            configuration = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration();
+        }
+        Image image = configuration != null
+            ? configuration.createCompatibleImage(width, height, Transparency.OPAQUE)
+            : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setAccelerationPriority(1.0f);
+        return image;
     }
     /**
      * Sets the window size to X by Y based on the scaled width (200px default) of the packaged cards.
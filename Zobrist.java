@@ -0,0 +1,119 @@
+import java.util.SplittableRandom;
+/**
+ * Zobrist keys for hashing game positions.
+ * Every piece of a position (a card's rank on one side of a cell, a cell owned by Player 2,
+ * a card in a hand slot, Player 2 to move) has a random 64 bit key and a position's hash is
+ * the XOR of the keys of everything in it. Since XOR undoes itself, playing a card or
+ * flipping an owner updates a hash with one or two XORs instead of rehashing the board.
+ * The keys come from a fixed seed so hashes are the same in every run. The first BitBoard.MAX_CELLS cells
+ * have their keys in tables, cells past them on bigger boards get keys mixed from the seed and their index.
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public final class Zobrist
+{
+    /**
+     * The seed the keys are generated from
+     */
+    private static final long SEED = 0x5472697054726961L;
+    /**
+     * Keys for a rank on a side of a card in a cell, indexed by (cell * 4 + side) * 16 + rank
+     */
+    private static final long[] cellRankKeys;
+    /**
+     * Keys for a cell being owned by Player 2
+     */
+    private static final long[] cellOwnerKeys;
+    /**
+     * Keys for a rank on a side of a card in a hand slot,
+     * indexed by ((owner * MAX_HAND_SLOTS + slot) * 4 + side) * 16 + rank
+     */
+    private static final long[] handRankKeys;
+    /**
+     * The key for Player 2 being the player to move
+     */
+    private static final long sideToMoveKey;
+
+    static
+    {
+        SplittableRandom random = new SplittableRandom(SEED);
+        cellRankKeys = randomKeys(random, BitBoard.MAX_CELLS * 4 * 16);
+        cellOwnerKeys = randomKeys(random, BitBoard.MAX_CELLS);
+        handRankKeys = randomKeys(random, 2 * GamePosition.MAX_HAND_SLOTS * 4 * 16);
+        sideToMoveKey = random.nextLong();
+    }
+    /**
+     * Utility class, not constructed
+     */
+    private Zobrist()
+    {
+    }
+    /**
+     * Fills an array with random keys
+     */
+    private static long[] randomKeys(SplittableRandom random, int size){
+        long[] keys = new long[size];
+        for(int i = 0; i < size; i++){
+            keys[i] = random.nextLong();
+        }
+        return keys;
+    }
+    /**
+     * Mixes a key from the seed for a cell past the tables, the same for the same table and index in every run
+     * @param table 0 for a rank on a side of a card in a cell, 1 for a cell owned by Player 2
+     */
+    private static long mixedKey(int table, long index){
+        long z = SEED + (index * 2 + table + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    /**
+     * The key of a card with the given packed ranks sitting in a cell
+     */
+    public static long cardKey(int cell, int packedRanks){
+        int base = cell * 64;
+        if(cell >= BitBoard.MAX_CELLS){
+            return mixedKey(0, base + Card.rankOf(packedRanks, 0))
+                ^ mixedKey(0, base + 16 + Card.rankOf(packedRanks, 1))
+                ^ mixedKey(0, base + 32 + Card.rankOf(packedRanks, 2))
+                ^ mixedKey(0, base + 48 + Card.rankOf(packedRanks, 3));
+        }
+        return cellRankKeys[base + Card.rankOf(packedRanks, 0)]
+            ^ cellRankKeys[base + 16 + Card.rankOf(packedRanks, 1)]
+            ^ cellRankKeys[base + 32 + Card.rankOf(packedRanks, 2)]
+            ^ cellRankKeys[base + 48 + Card.rankOf(packedRanks, 3)];
+    }
+    /**
+     * The key of a cell owned by Player 2. Cells owned by Player 1 add nothing to the hash.
+     */
+    public static long ownerKey(int cell){
+        return cell < BitBoard.MAX_CELLS ? cellOwnerKeys[cell] : mixedKey(1, cell);
+    }
+    /**
+     * The key of a card with the given packed ranks in a player's hand slot
+     */
+    public static long handCardKey(int owner, int slot, int packedRanks){
+        int base = (owner * GamePosition.MAX_HAND_SLOTS + slot) * 64;
+        return handRankKeys[base + Card.rankOf(packedRanks, 0)]
+            ^ handRankKeys[base + 16 + Card.rankOf(packedRanks, 1)]
+            ^ handRankKeys[base + 32 + Card.rankOf(packedRanks, 2)]
+            ^ handRankKeys[base + 48 + Card.rankOf(packedRanks, 3)];
+    }
+    /**
+     * The key of Player 2 being the player to move
+     */
+    public static long sideToMoveKey(){
+        return sideToMoveKey;
+    }
+    /**
+     * XORs together the owner keys of every cell in a mask, used when a capture flips several cells
+     */
+    public static long ownerKeys(long cells){
+        long key = 0L;
+        for(long remaining = cells; remaining != 0; remaining &= remaining - 1){
+            key ^= cellOwnerKeys[Long.numberOfTrailingZeros(remaining)];
+        }
+        return key;
+    }
+}
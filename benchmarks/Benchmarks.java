@@ -0,0 +1,319 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.SplittableRandom;
+/**
+ * Micro benchmarks of the engine's hot paths.
+ * Every benchmark is warmed up then measured over several timed iterations, reporting
+ * throughput in operations per second and the bytes allocated per operation and per second
+ * (read from the thread's allocation counter, like a gc profiler's normalized allocation rate).
+ * Results can be saved to a baseline file and later runs print their change against it,
+ * so every engine optimisation is measured against the same baseline.
+ * Before measuring, the incremental hash of a board bigger than BitBoard.MAX_CELLS cells is checked against
+ * a hash from scratch, and the run stops if they differ.
+ * Compile and run from the project directory:
+ * javac -d benchmarks *.java benchmarks/*.java
+ * java -cp benchmarks Benchmarks [baseline file] [seconds per iteration]
+ * @author Keagen Thomson
+ * @version 1.0.0
+ */
+public class Benchmarks
+{
+    /**
+     * Untimed iterations run before measuring
+     */
+    private static final int WARMUP_ITERATIONS = 3;
+    /**
+     * Timed iterations
+     */
+    private static final int MEASURED_ITERATIONS = 5;
+    /**
+     * Operations run between checks of the clock
+     */
+    private static final int OPERATIONS_PER_CHECK = 64;
+    /**
+     * Results are folded into this so the JIT can't drop the benchmarked work
+     */
+    private static long sink;
+    /**
+     * How long each iteration runs in nanoseconds
+     */
+    private final long iterationNanos;
+    /**
+     * Reads how many bytes the current thread allocated
+     */
+    private final com.sun.management.ThreadMXBean threads;
+
+    /**
+     * One benchmarked operation
+     */
+    interface Operation
+    {
+        /**
+         * Runs the operation once
+         * @return any value depending on the work done
+         */
+        long run();
+    }
+    /**
+     * Creates a benchmark runner
+     */
+    public Benchmarks(long iterationMillis)
+    {
+        this.iterationNanos = iterationMillis * 1000000L;
+        this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    }
+    /**
+     * Measures an operation
+     * @return operations per second then bytes allocated per operation
+     */
+    public double[] measure(Operation operation){
+        for(int i = 0; i < WARMUP_ITERATIONS; i++){
+            runIteration(operation);
+        }
+        double operations = 0;
+        double nanos = 0;
+        double bytes = 0;
+        for(int i = 0; i < MEASURED_ITERATIONS; i++){
+            double[] iteration = runIteration(operation);
+            operations += iteration[0];
+            nanos += iteration[1];
+            bytes += iteration[2];
+        }
+        return new double[] {operations * 1e9 / nanos, bytes / operations};
+    }
+    /**
+     * Runs an operation for one iteration
+     * @return operations run, nanoseconds taken and bytes allocated
+     */
+    private double[] runIteration(Operation operation){
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = this.threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long end = start + this.iterationNanos;
+        long operations = 0;
+        long now;
+        long result = 0;
+        do{
+            for(int i = 0; i < OPERATIONS_PER_CHECK; i++){
+                result += operation.run();
+            }
+            operations += OPERATIONS_PER_CHECK;
+            now = System.nanoTime();
+        } while(now < end);
+        long bytes = this.threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        sink += result;
+        return new double[] {operations, now - start, bytes};
+    }
+    /**
+     * Creates a card with random ranks
+     */
+    private static Card randomCard(SplittableRandom random, int owner){
+        Card card = new Card("Bomb", random.nextInt(10) + 1, random.nextInt(10) + 1,
+            random.nextInt(10) + 1, random.nextInt(10) + 1, owner);
+        card.setOwner(owner);
+        return card;
+    }
+    /**
+     * Fills a fresh board with cards, alternating players
+     */
+    private static Board fillBoard(Card[] cards){
+        return fillBoard(3, 3, cards);
+    }
+    /**
+     * Fills a fresh board of any size with cards, one card per cell
+     */
+    private static Board fillBoard(int height, int width, Card[] cards){
+        Board board = new Board(height, width);
+        for(int i = 0; i < height * width; i++){
+            board.playCardAt(i, cards[i]);
+        }
+        return board;
+    }
+    /**
+     * Gives every card its starting owner back, alternating players, since captures change owners
+     */
+    private static void resetOwners(Card[] cards){
+        for(int i = 0; i < cards.length; i++){
+            cards[i].setOwner(i % 2 == 0 ? Owner.PLAYER_ONE : Owner.PLAYER_TWO);
+        }
+    }
+    /**
+     * Hashes a board from scratch by placing copies of its cards on a fresh board without capturing
+     */
+    private static long rebuiltHash(Board board){
+        Board rebuilt = new Board(board.getHeight(), board.getWidth(), board.getTopology());
+        for(Node node: board.getPlayedCards()){
+            if(node.getHasCard()){
+                rebuilt.placeCard(node.getIndex(), new Card(node.getCard().getDefinition(), node.getCard().getOwner()));
+            }
+        }
+        return rebuilt.getHash();
+    }
+    /**
+     * Plays random cards in a random order on a board bigger than BitBoard.MAX_CELLS cells, then undoes and
+     * redoes every play, checking the board's hash against a hash from scratch after each step
+     * @throws IllegalStateException if the hashes differ
+     */
+    private static void checkLargeBoardHash(){
+        SplittableRandom random = new SplittableRandom(7);
+        int height = 9;
+        int width = 9;
+        Board board = new Board(height, width);
+        int[] order = new int[height * width];
+        for(int i = 0; i < order.length; i++){
+            int pick = random.nextInt(i + 1);
+            order[i] = order[pick];
+            order[pick] = i;
+        }
+        for(int i = 0; i < order.length; i++){
+            board.playCardAt(order[i], randomCard(random, i % 2 == 0 ? Owner.PLAYER_ONE : Owner.PLAYER_TWO));
+            checkHash(board, "play " + i);
+        }
+        while(board.canUndo()){
+            board.undoLastPlay();
+            checkHash(board, "undo to " + board.getPlayCount() + " plays");
+        }
+        while(board.canRedo()){
+            board.redoPlay();
+            checkHash(board, "redo to " + board.getPlayCount() + " plays");
+        }
+    }
+    /**
+     * Checks a board's hash against a hash from scratch
+     * @throws IllegalStateException if they differ
+     */
+    private static void checkHash(Board board, String step){
+        if(board.getHash() != rebuiltHash(board)){
+            throw new IllegalStateException("The hash of a " + board.getHeight() + "x" + board.getWidth()
+                + " board is wrong after " + step);
+        }
+    }
+    /**
+     * Plays a model to the end with random legal plays, updating the game state after each like the controller
+     */
+    private static long playRandomModelGame(SplittableRandom random){
+        TripleTriadModel model = new TripleTriadModel(random.nextLong());
+        Board board = model.getBoard();
+        while(!model.getGameFinished()){
+            int boardIndex = random.nextInt(9);
+            while(!board.attemptPlayCardAt(boardIndex)){
+                boardIndex = random.nextInt(9);
+            }
+            int handIndex = random.nextInt(model.getActivePlayer().getHand().getHandSize());
+            model.playMove(handIndex, boardIndex);
+            model.toggleActivePlayer();
+            model.updateGameState();
+        }
+        return model.getScores()[0];
+    }
+    /**
+     * Creates every benchmark, in the order they run
+     */
+    private static List<Object[]> createBenchmarks(){
+        final SplittableRandom random = new SplittableRandom(42);
+        final Card[] cards = new Card[9];
+        for(int i = 0; i < 9; i++){
+            cards[i] = randomCard(random, i % 2 == 0 ? Owner.PLAYER_ONE : Owner.PLAYER_TWO);
+        }
+        final Card[] comparedCards = new Card[256];
+        for(int i = 0; i < comparedCards.length; i++){
+            comparedCards[i] = randomCard(random, Owner.PLAYER_ONE);
+        }
+        //Their own random source, so the other benchmarks' cards stay the same as before
+        final SplittableRandom largeBoardRandom = new SplittableRandom(81);
+        final Card[] largeBoardCards = new Card[81];
+        for(int i = 0; i < largeBoardCards.length; i++){
+            largeBoardCards[i] = randomCard(largeBoardRandom, i % 2 == 0 ? Owner.PLAYER_ONE : Owner.PLAYER_TWO);
+        }
+        final Board fullBoard = fillBoard(cards);
+        final TripleTriadModel model = new TripleTriadModel(42);
+        final MovePolicy[] policies = {new RandomPolicy(), new RandomPolicy()};
+        final int[] pool = new int[HiddenCardPool.getPoolSize()];
+        final SimulationStats stats = new SimulationStats();
+        List<Object[]> benchmarks = new ArrayList<Object[]>();
+        benchmarks.add(new Object[] {"Board.playCardAt (9 plays on a new board)", (Operation) () -> {
+            //Captures change owners, so every card gets its starting owner back first
+            resetOwners(cards);
+            return fillBoard(cards).getPlayedCardTotal(Owner.PLAYER_ONE);
+        }});
+        benchmarks.add(new Object[] {"Board.playCardAt (81 plays on a 9x9 board)", (Operation) () -> {
+            //Past BitBoard.MAX_CELLS cells the hash keys are mixed instead of looked up
+            resetOwners(largeBoardCards);
+            return fillBoard(9, 9, largeBoardCards).getHash();
+        }});
+        benchmarks.add(new Object[] {"Card.compareTo (256 comparisons)", (Operation) () -> {
+            long captures = 0;
+            for(int i = 0; i < comparedCards.length; i++){
+                if(comparedCards[i].compareTo(comparedCards[(i + 1) & 255], i & 3)){
+                    captures++;
+                }
+            }
+            return captures;
+        }});
+        benchmarks.add(new Object[] {"Board.getPlayedCardTotal", (Operation) () ->
+            fullBoard.getPlayedCardTotal(Owner.PLAYER_ONE)});
+        benchmarks.add(new Object[] {"TripleTriadModel.updateGameState", (Operation) () -> {
+            model.updateGameState();
+            return model.getScores()[0];
+        }});
+        benchmarks.add(new Object[] {"HiddenCardPool.generateCardPool", (Operation) () ->
+            new HiddenCardPool("cardPool", random).size()});
+        benchmarks.add(new Object[] {"Hand.buildHand", (Operation) () -> new Hand(Owner.PLAYER_ONE, random).size()});
+        benchmarks.add(new Object[] {"Full random game (TripleTriadModel)", (Operation) () ->
+            playRandomModelGame(random)});
+        benchmarks.add(new Object[] {"Full random game (GamePosition)", (Operation) () ->
+            Simulation.playGame(policies, pool, random, stats)});
+        return benchmarks;
+    }
+    /**
+     * Reads a baseline file of "name,operations per second,bytes per operation" lines
+     */
+    private static HashMap<String, double[]> readBaseline(File file) throws IOException{
+        HashMap<String, double[]> baseline = new HashMap<String, double[]>();
+        if(file != null && file.exists()){
+            for(String line: Files.readAllLines(file.toPath())){
+                String[] fields = line.split(",");
+                baseline.put(fields[0], new double[] {Double.parseDouble(fields[1]), Double.parseDouble(fields[2])});
+            }
+        }
+        return baseline;
+    }
+    /**
+     * Runs every benchmark and prints the results, comparing them to a baseline file if one exists.
+     * When the baseline file doesn't exist yet the results are saved to it.
+     */
+    public static void main(String[] args) throws IOException{
+        File baselineFile = args.length > 0 ? new File(args[0]) : null;
+        long iterationMillis = args.length > 1 ? (long) (Double.parseDouble(args[1]) * 1000) : 1000;
+        checkLargeBoardHash();
+        HashMap<String, double[]> baseline = readBaseline(baselineFile);
+        Benchmarks benchmarks = new Benchmarks(iterationMillis);
+        StringBuilder results = new StringBuilder();
+        System.out.println(String.format("%-42s %16s %12s %12s %10s", "Benchmark", "ops/s", "B/op", "MB/s", "vs base"));
+        for(Object[] benchmark: createBenchmarks()){
+            String name = (String) benchmark[0];
+            double[] result = benchmarks.measure((Operation) benchmark[1]);
+            double megabytesPerSecond = result[0] * result[1] / (1024 * 1024);
+            double[] base = baseline.get(name);
+            String change = base == null ? "" : String.format("%+.1f%%", (result[0] / base[0] - 1) * 100);
+            System.out.println(String.format("%-42s %16.0f %12.1f %12.1f %10s", name, result[0], result[1],
+                megabytesPerSecond, change));
+            results.append(name).append(",").append(result[0]).append(",").append(result[1]).append("\n");
+        }
+        if(baselineFile != null && baseline.isEmpty()){
+            FileWriter writer = new FileWriter(baselineFile);
+            writer.write(results.toString());
+            writer.close();
+            System.out.println("Saved baseline to " + baselineFile);
+        }
+        if(sink == 42){
+            System.out.println();
+        }
+    }
+}